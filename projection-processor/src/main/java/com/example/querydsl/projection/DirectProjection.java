@@ -0,0 +1,21 @@
+package com.example.querydsl.projection;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * DTO 생성자에 붙이면 컴파일할 때 {DTO 이름}Projection 클래스가 같은 패키지에 생성된다. (DirectProjectionProcessor)
+ * <p>
+ * QMemberDto(@QueryProjection), Projections.bean/fields/constructor 는 로우마다 리플렉션으로 생성자/setter/필드를 호출하는데
+ * 생성된 프로젝션은 newInstance 에서 생성자를 직접 호출한다.
+ * <pre>
+ * queryFactory.select(MemberDtoProjection.of(member.userName, member.age)).from(member).fetch();
+ * </pre>
+ * DTO 하나에 생성자 하나만 붙일 수 있다.
+ */
+@Target(ElementType.CONSTRUCTOR)
+@Retention(RetentionPolicy.SOURCE)
+public @interface DirectProjection {
+}
@@ -0,0 +1,169 @@
+package com.example.querydsl.projection;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * @DirectProjection 이 붙은 생성자마다 FactoryExpressionBase 를 상속한 {DTO 이름}Projection 을 만든다.
+ * <ul>
+ *     <li>of(...) -> 생성자 파라미터와 같은 순서/타입의 Expression 을 받는다. (primitive 는 박싱 타입)</li>
+ *     <li>newInstance(Object... args) -> 캐스팅 후 new DTO(...) 직접 호출</li>
+ * </ul>
+ * 생성된 코드는 Querydsl 클래스를 이름으로만 참조하므로 이 모듈은 Querydsl 에 의존하지 않는다.
+ */
+@SupportedAnnotationTypes("com.example.querydsl.projection.DirectProjection")
+public class DirectProjectionProcessor extends AbstractProcessor {
+
+    private static final String SUFFIX = "Projection";
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        Map<TypeElement, List<ExecutableElement>> constructors = new LinkedHashMap<>();
+        for (Element element : roundEnv.getElementsAnnotatedWith(DirectProjection.class)) {
+            if (element.getKind() != ElementKind.CONSTRUCTOR) {
+                continue;
+            }
+            ExecutableElement constructor = (ExecutableElement) element;
+            TypeElement type = (TypeElement) constructor.getEnclosingElement();
+            if (isValid(type, constructor)) {
+                constructors.computeIfAbsent(type, key -> new ArrayList<>()).add(constructor);
+            }
+        }
+
+        constructors.forEach((type, annotated) -> {
+            if (annotated.size() > 1) {
+                error(type, "@DirectProjection can be placed on only one constructor of " + type.getSimpleName());
+                return;
+            }
+            write(type, annotated.get(0));
+        });
+        return true;
+    }
+
+    private boolean isValid(TypeElement type, ExecutableElement constructor) {
+        if (type.getNestingKind() != NestingKind.TOP_LEVEL) {
+            error(constructor, "@DirectProjection is only supported on top-level classes");
+            return false;
+        }
+        if (type.getModifiers().contains(Modifier.ABSTRACT)) {
+            error(constructor, "@DirectProjection cannot be used on an abstract class");
+            return false;
+        }
+        if (constructor.getModifiers().contains(Modifier.PRIVATE)) {
+            error(constructor, "@DirectProjection constructor must not be private");
+            return false;
+        }
+        if (constructor.isVarArgs() || !constructor.getTypeParameters().isEmpty()) {
+            error(constructor, "@DirectProjection does not support varargs or generic constructors");
+            return false;
+        }
+        return true;
+    }
+
+    private void write(TypeElement type, ExecutableElement constructor) {
+        String packageName = ((PackageElement) type.getEnclosingElement()).getQualifiedName().toString();
+        String dto = type.getSimpleName().toString();
+        String projection = dto + SUFFIX;
+
+        List<String> parameters = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        List<String> casts = new ArrayList<>();
+        List<? extends VariableElement> constructorParameters = constructor.getParameters();
+        for (int i = 0; i < constructorParameters.size(); i++) {
+            VariableElement parameter = constructorParameters.get(i);
+            TypeMirror parameterType = parameter.asType();
+            String boxed = boxed(parameterType);
+            names.add(parameter.getSimpleName().toString());
+            parameters.add("com.querydsl.core.types.Expression<" + boxed + "> " + parameter.getSimpleName());
+            casts.add("(" + erasure(parameterType, boxed) + ") args[" + i + "]");
+        }
+
+        StringBuilder source = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            source.append("package ").append(packageName).append(";\n\n");
+        }
+        source.append("/**\n")
+                .append(" * ").append(projection).append(" is a reflection-free projection for ").append(dto).append("\n")
+                .append(" */\n")
+                .append("@javax.annotation.processing.Generated(\"").append(getClass().getName()).append("\")\n")
+                .append("public final class ").append(projection)
+                .append(" extends com.querydsl.core.types.FactoryExpressionBase<").append(dto).append("> {\n\n")
+                .append("    private static final long serialVersionUID = 1L;\n\n")
+                .append("    private final java.util.List<com.querydsl.core.types.Expression<?>> args;\n\n")
+                .append("    private ").append(projection).append("(java.util.List<com.querydsl.core.types.Expression<?>> args) {\n")
+                .append("        super(").append(dto).append(".class);\n")
+                .append("        this.args = args;\n")
+                .append("    }\n\n")
+                .append("    public static ").append(projection).append(" of(").append(String.join(", ", parameters)).append(") {\n")
+                .append("        return new ").append(projection).append("(java.util.List.of(").append(String.join(", ", names)).append("));\n")
+                .append("    }\n\n")
+                .append("    @Override\n")
+                .append("    public java.util.List<com.querydsl.core.types.Expression<?>> getArgs() {\n")
+                .append("        return args;\n")
+                .append("    }\n\n")
+                .append("    @Override\n")
+                .append("    public ").append(dto).append(" newInstance(Object... args) {\n")
+                .append("        return new ").append(dto).append("(").append(String.join(", ", casts)).append(");\n")
+                .append("    }\n\n")
+                .append("    @Override\n")
+                .append("    public <R, C> R accept(com.querydsl.core.types.Visitor<R, C> v, C context) {\n")
+                .append("        return v.visit(this, context);\n")
+                .append("    }\n")
+                .append("}\n");
+
+        String qualifiedName = packageName.isEmpty() ? projection : packageName + "." + projection;
+        try {
+            JavaFileObject file = processingEnv.getFiler().createSourceFile(qualifiedName, type); // 원본 DTO -> 증분 컴파일(isolating)
+            try (Writer writer = file.openWriter()) {
+                writer.write(source.toString());
+            }
+        } catch (IOException e) {
+            error(type, "failed to write " + qualifiedName + ": " + e.getMessage());
+        }
+    }
+
+    private String boxed(TypeMirror type) {
+        if (type.getKind().isPrimitive()) {
+            return processingEnv.getTypeUtils().boxedClass((PrimitiveType) type).getQualifiedName().toString();
+        }
+        return type.toString();
+    }
+
+    // 제네릭 인자는 런타임에 확인할 수 없으므로 raw 타입으로 캐스팅
+    private String erasure(TypeMirror type, String boxed) {
+        if (type.getKind().isPrimitive()) {
+            return boxed; // 박싱 타입으로 캐스팅하면 생성자 호출 때 언박싱
+        }
+        return processingEnv.getTypeUtils().erasure(type).toString();
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.querydsl;
+
+import com.example.querydsl.controller.dto.MemberSearchCondition;
+import com.example.querydsl.controller.dto.MemberTeamDto;
+import com.example.querydsl.entity.Member;
+import com.example.querydsl.entity.repository.MemberBulkLoader;
+import com.example.querydsl.entity.repository.MemberJpaRepository;
+import com.example.querydsl.entity.repository.MemberRepository;
+import com.example.querydsl.entity.repository.MemberTestRepository;
+import com.example.querydsl.entity.repository.support.PaginationStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+
+/**
+ * 검색 레포지토리 메서드 벤치마크. H2 메모리 DB 에 memberCount 만큼 적재해두고 같은 조건으로 각 메서드를 호출한다.
+ * ./gradlew jmh (-PjmhInclude=MemberRepositoryBenchmark.search) -> build/reports/jmh/results.json
+ */
+@State(Scope.Benchmark)
+public class MemberRepositoryBenchmark {
+
+    @Param({"10000", "1000000"})
+    private int memberCount;
+
+    @Param({"100"})
+    private int teamCount;
+
+    private ConfigurableApplicationContext context;
+
+    private MemberJpaRepository memberJpaRepository;
+    private MemberRepository memberRepository;
+    private MemberTestRepository memberTestRepository;
+
+    private MemberSearchCondition condition;
+    private Pageable pageable;
+
+    private MemberSearchCondition noCondition;
+    private Pageable deepSortedPageable; // 지연 조인 비교용
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(QuerydslApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.profiles.active=jmh",
+                        "--spring.datasource.url=jdbc:h2:mem:jmh;DB_CLOSE_DELAY=-1",
+                        "--spring.jpa.hibernate.ddl-auto=create",
+                        "--decorator.datasource.enabled=false", // p6spy 로그 끄기
+                        "--querydsl.page.count-cache.enabled=false", // 매번 카운트 쿼리까지 측정
+                        "--logging.level.root=warn");
+
+        context.getBean(MemberBulkLoader.class).load(teamCount, memberCount);
+
+        memberJpaRepository = context.getBean(MemberJpaRepository.class);
+        memberRepository = context.getBean(MemberRepository.class);
+        memberTestRepository = context.getBean(MemberTestRepository.class);
+
+        condition = new MemberSearchCondition();
+        condition.setTeamName("team1");
+        condition.setAgeGoe(20);
+        condition.setAgeLoe(40);
+        pageable = PageRequest.of(3, 20);
+
+        noCondition = new MemberSearchCondition();
+        deepSortedPageable = PageRequest.of(memberCount / 20 / 2, 20, Sort.by(Sort.Direction.DESC, "age")); // 가운데 페이지
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> search() {
+        return memberJpaRepository.search(condition);
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> searchByBuilder() {
+        return memberJpaRepository.searchByBuilder(condition);
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> searchByTemplate() {
+        return memberJpaRepository.searchByTemplate(condition);
+    }
+
+    @Benchmark
+    public Page<MemberTeamDto> searchPageSimple() {
+        return memberRepository.searchPageSimple(condition, pageable);
+    }
+
+    @Benchmark
+    public Page<MemberTeamDto> searchPageComplex() {
+        return memberRepository.searchPageComplex(condition, pageable);
+    }
+
+    @Benchmark
+    public Page<Member> searchPageByApplyPage() {
+        return memberTestRepository.searchPageByApplyPage(condition, pageable);
+    }
+
+    @Benchmark
+    public Page<Member> applyPagination() {
+        return memberTestRepository.applyPagination(condition, pageable);
+    }
+
+    @Benchmark
+    public Page<Member> applyPaginationWithCountQuery() {
+        return memberTestRepository.applyPagination2(condition, pageable);
+    }
+
+    @Benchmark
+    public Page<MemberTeamDto> deepSortedPageOffset() {
+        return memberTestRepository.searchPage(noCondition, deepSortedPageable, PaginationStrategy.OFFSET);
+    }
+
+    @Benchmark
+    public Page<MemberTeamDto> deepSortedPageDeferredJoin() {
+        return memberTestRepository.searchPage(noCondition, deepSortedPageable, PaginationStrategy.DEFERRED_JOIN);
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.querydsl;
+
+import com.example.querydsl.controller.dto.MemberDto;
+import com.example.querydsl.controller.dto.MemberDtoProjection;
+import com.example.querydsl.controller.dto.QMemberDto;
+import com.example.querydsl.entity.repository.MemberBulkLoader;
+import com.querydsl.core.types.FactoryExpression;
+import com.querydsl.core.types.Projections;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static com.example.querydsl.entity.QMember.member;
+
+/**
+ * DTO 프로젝션 방식별 로우당 비용/할당량 비교. 결과는 전부 로우 1건 기준이다. (@OperationsPerInvocation)
+ * <ul>
+ *     <li>map* -> 미리 만들어 둔 로우(Object[])를 newInstance 로 DTO 로 바꾸는 비용만 잰다.</li>
+ *     <li>fetch* -> H2 메모리 DB 에서 ROWS 건을 실제로 조회 (JDBC/하이버네이트 비용 포함)</li>
+ * </ul>
+ * bean = setter 리플렉션, fields = 필드 리플렉션, constructor / queryProjection = 생성자 리플렉션, direct = 생성된 MemberDtoProjection (직접 호출)
+ * ./gradlew jmh -PjmhInclude=ProjectionBenchmark -> gc.alloc.rate.norm 이 로우당 할당 바이트
+ */
+public class ProjectionBenchmark {
+
+    private static final int ROWS = 100_000;
+
+    private static final FactoryExpression<MemberDto> BEAN = Projections.bean(MemberDto.class, member.userName, member.age);
+    private static final FactoryExpression<MemberDto> FIELDS = Projections.fields(MemberDto.class, member.userName, member.age);
+    private static final FactoryExpression<MemberDto> CONSTRUCTOR = Projections.constructor(MemberDto.class, member.userName, member.age);
+    private static final FactoryExpression<MemberDto> QUERY_PROJECTION = new QMemberDto(member.userName, member.age);
+    private static final FactoryExpression<MemberDto> DIRECT = MemberDtoProjection.of(member.userName, member.age);
+
+    @State(Scope.Benchmark)
+    public static class Rows {
+
+        private Object[][] rows;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            rows = new Object[ROWS][];
+            for (int i = 0; i < ROWS; i++) {
+                rows[i] = new Object[]{"member" + i, i % 100 + 1}; // 하이버네이트가 넘겨주는 로우와 같은 모양
+            }
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Database {
+
+        private ConfigurableApplicationContext context;
+        private TransactionTemplate transactionTemplate;
+        private EntityManager em;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            context = new SpringApplicationBuilder(QuerydslApplication.class)
+                    .web(WebApplicationType.NONE)
+                    .run("--spring.profiles.active=jmh",
+                            "--spring.datasource.url=jdbc:h2:mem:jmh-projection;DB_CLOSE_DELAY=-1",
+                            "--spring.jpa.hibernate.ddl-auto=create",
+                            "--decorator.datasource.enabled=false", // p6spy 로그 끄기
+                            "--logging.level.root=warn");
+
+            context.getBean(MemberBulkLoader.class).load(0, ROWS);
+            transactionTemplate = context.getBean(TransactionTemplate.class);
+            em = context.getBean(EntityManager.class);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            context.close();
+        }
+
+        private List<MemberDto> fetch(FactoryExpression<MemberDto> projection) {
+            return transactionTemplate.execute(status -> new JPAQueryFactory(em)
+                    .select(projection)
+                    .from(member)
+                    .fetch());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void mapBean(Rows rows, Blackhole blackhole) {
+        map(BEAN, rows, blackhole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void mapFields(Rows rows, Blackhole blackhole) {
+        map(FIELDS, rows, blackhole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void mapConstructor(Rows rows, Blackhole blackhole) {
+        map(CONSTRUCTOR, rows, blackhole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void mapQueryProjection(Rows rows, Blackhole blackhole) {
+        map(QUERY_PROJECTION, rows, blackhole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void mapDirect(Rows rows, Blackhole blackhole) {
+        map(DIRECT, rows, blackhole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public List<MemberDto> fetchBean(Database database) {
+        return database.fetch(BEAN);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public List<MemberDto> fetchFields(Database database) {
+        return database.fetch(FIELDS);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public List<MemberDto> fetchConstructor(Database database) {
+        return database.fetch(CONSTRUCTOR);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public List<MemberDto> fetchQueryProjection(Database database) {
+        return database.fetch(QUERY_PROJECTION);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public List<MemberDto> fetchDirect(Database database) {
+        return database.fetch(DIRECT);
+    }
+
+    private static void map(FactoryExpression<MemberDto> projection, Rows rows, Blackhole blackhole) {
+        for (Object[] row : rows.rows) {
+            blackhole.consume(projection.newInstance(row));
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.querydsl.controller;
+
+import com.example.querydsl.entity.repository.MemberBulkLoader;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+
+/**
+ * bulk 프로파일로 띄우면 대량 샘플 데이터를 적재하고 초당 적재 건수를 로그로 남긴다.
+ * ex) --spring.profiles.active=bulk --querydsl.bulk-load.members=1000000
+ */
+@Profile("bulk")
+@Component
+@RequiredArgsConstructor
+public class BulkMember {
+
+    private final MemberBulkLoader memberBulkLoader;
+
+    @Value("${querydsl.bulk-load.teams:100}")
+    private int teamCount;
+
+    @Value("${querydsl.bulk-load.members:1000000}")
+    private int memberCount;
+
+    @PostConstruct
+    public void init() {
+        memberBulkLoader.load(teamCount, memberCount);
+    }
+}
@@ -1,17 +1,41 @@
 package com.example.querydsl.controller;
 
+import com.example.querydsl.controller.dto.EstimatedPage;
+import com.example.querydsl.controller.dto.FacetedPage;
+import com.example.querydsl.controller.dto.MemberCursor;
+import com.example.querydsl.controller.dto.MemberCursorPage;
+import com.example.querydsl.controller.dto.MemberCursorSort;
 import com.example.querydsl.controller.dto.MemberSearchCondition;
 import com.example.querydsl.controller.dto.MemberTeamDto;
+import com.example.querydsl.controller.dto.MemberTeamField;
 import com.example.querydsl.entity.repository.MemberJpaRepository;
 import com.example.querydsl.entity.repository.MemberRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.springframework.util.StringUtils.hasText;
 
 @RestController
 @RequiredArgsConstructor
@@ -19,10 +43,44 @@ public class MemberApiController {
 
     private final MemberJpaRepository memberJpaRepository;
     private final MemberRepository memberRepository;
+    private final ObjectMapper objectMapper;
+
+    private static final String NDJSON = "application/x-ndjson";
+
+    @Value("${querydsl.export.fetch-size:500}")
+    private int exportFetchSize;
 
     @GetMapping("/v1/members")
     public List<MemberTeamDto> searchMemberV1(MemberSearchCondition condition) {
-        return memberJpaRepository.search(condition);
+        return memberJpaRepository.searchByTemplate(condition); // search(condition) 과 결과 동일
+    }
+
+    // fields=memberId,userName 처럼 필요한 컬럼만 조회 -> 고른 컬럼만 select/응답, teamName 이 없으면 team 조인도 안 한다.
+    @GetMapping(value = "/v1/members", params = "fields")
+    public List<Map<String, Object>> searchMemberV1Fields(MemberSearchCondition condition, @RequestParam Set<String> fields) {
+        return memberRepository.searchFields(condition, MemberTeamField.parse(fields));
+    }
+
+    // 전체 결과를 한 번에 리스트로 만들지 않고 한 줄에 하나씩 JSON 으로 바로 써 내려간다. (NDJSON)
+    @GetMapping(value = "/v1/members/stream", produces = NDJSON)
+    public void streamMemberV1(MemberSearchCondition condition, HttpServletResponse response) throws IOException {
+        response.setContentType(NDJSON);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        OutputStream out = response.getOutputStream();
+        AtomicBoolean first = new AtomicBoolean(true);
+
+        memberJpaRepository.searchStream(condition, exportFetchSize, dto -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(dto));
+                out.write('\n');
+                if (first.getAndSet(false)) {
+                    out.flush(); // 첫 줄은 바로 내보낸다. 이후는 서블릿 버퍼가 찰 때마다 나감
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e); // 클라이언트가 끊으면 여기서 스트림(커서)까지 정리된다.
+            }
+        });
+        out.flush();
     }
 
     @GetMapping("/v2/members")
@@ -30,10 +88,50 @@ public class MemberApiController {
         return memberRepository.searchPageSimple(condition, pageable);
     }
 
+    // 결과가 아주 많으면 전체 건수는 DB 통계로 추정 (totalExact = false), exactCount=true 면 항상 정확히 센다.
     @GetMapping("/v3/members")
-    public Page<MemberTeamDto> searchMemberV3(MemberSearchCondition condition, Pageable pageable) {
-        return memberRepository.searchPageComplex(condition, pageable);
+    public EstimatedPage<MemberTeamDto> searchMemberV3(MemberSearchCondition condition, Pageable pageable,
+                                                       @RequestParam(defaultValue = "false") boolean exactCount) {
+        return memberRepository.searchPageEstimated(condition, pageable, exactCount);
     }
 
+    // facets=true -> 나이대별(ageBucket 살 단위)/팀별 건수를 같이 내려준다. 전체 건수도 패싯에서 나오므로 카운트 쿼리는 없다.
+    @GetMapping(value = "/v3/members", params = {"facets=true", "!fields"})
+    public FacetedPage<MemberTeamDto> searchMemberV3Facets(MemberSearchCondition condition, Pageable pageable,
+                                                           @RequestParam(defaultValue = "10") int ageBucket) {
+        return memberRepository.searchPageWithFacets(condition, pageable, ageBucket);
+    }
+
+    @GetMapping(value = "/v3/members", params = "fields")
+    public Page<Map<String, Object>> searchMemberV3Fields(MemberSearchCondition condition, Pageable pageable,
+                                                          @RequestParam Set<String> fields) {
+        return memberRepository.searchPageFields(condition, MemberTeamField.parse(fields), pageable);
+    }
+
+    // 전체 건수 없이 다음 페이지 여부만 -> 카운트 쿼리 없음
+    @GetMapping("/v3/members/slice")
+    public Slice<MemberTeamDto> searchMemberV3Slice(MemberSearchCondition condition, Pageable pageable) {
+        return memberRepository.searchSlice(condition, pageable);
+    }
+
+    // 커서 페이징 -> 첫 요청은 sort, direction 으로 시작하고 이후에는 응답의 nextCursor 만 넘기면 된다.
+    // size 는 1 이상 (0 이하면 400), MemberCursor.MAX_SIZE 보다 크면 MAX_SIZE 만큼만 내려준다.
+    @GetMapping("/v4/members")
+    public MemberCursorPage searchMemberV4(MemberSearchCondition condition,
+                                           @RequestParam(required = false) String cursor,
+                                           @RequestParam(defaultValue = "ID") MemberCursorSort sort,
+                                           @RequestParam(defaultValue = "ASC") Sort.Direction direction,
+                                           @RequestParam(defaultValue = "20") int size) {
+        if (size < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "size must be positive: " + size);
+        }
+        MemberCursor memberCursor = hasText(cursor) ? MemberCursor.decode(cursor) : MemberCursor.first(sort, direction);
+        return memberRepository.searchByCursor(condition, memberCursor, size);
+    }
 
+    // 요청 값이 잘못된 경우 (fields 오타, ageBucket <= 0, 깨진 커서 등) -> 500 이 아니라 400
+    @ExceptionHandler(IllegalArgumentException.class)
+    public void badRequest(IllegalArgumentException e, HttpServletResponse response) throws IOException {
+        response.sendError(HttpStatus.BAD_REQUEST.value(), e.getMessage());
+    }
 }
@@ -0,0 +1,45 @@
+package com.example.querydsl.controller.dto;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+/**
+ * totalElements 가 실제 count 인지 DB 통계로 추정한 값인지 같이 내려주는 페이지
+ */
+public class EstimatedPage<T> extends PageImpl<T> {
+
+    private final boolean totalExact;
+
+    private EstimatedPage(List<T> content, Pageable pageable, long total, boolean totalExact) {
+        super(content, pageable, total);
+        this.totalExact = totalExact;
+    }
+
+    public static <T> EstimatedPage<T> exact(Page<T> page) {
+        return new EstimatedPage<>(page.getContent(), page.getPageable(), page.getTotalElements(), true);
+    }
+
+    public static <T> EstimatedPage<T> estimated(List<T> content, Pageable pageable, long estimatedTotal) {
+        // 빈 페이지 -> 전체 건수는 offset 을 넘을 수 없다. 첫 페이지면 정확히 0
+        if (content.isEmpty()) {
+            long offset = pageable.getOffset();
+            return offset == 0
+                    ? new EstimatedPage<>(content, pageable, 0, true)
+                    : new EstimatedPage<>(content, pageable, Math.min(estimatedTotal, offset), false);
+        }
+        // 마지막 페이지에 도달했으면 (꽉 차지 않은 페이지) 전체 건수가 정확히 나온다.
+        if (content.size() < pageable.getPageSize()) {
+            return new EstimatedPage<>(content, pageable, pageable.getOffset() + content.size(), true);
+        }
+        // 추정치가 이미 본 건수보다 작으면 최소한 지금까지 본 건수로 맞춘다.
+        long seen = pageable.getOffset() + content.size();
+        return new EstimatedPage<>(content, pageable, Math.max(estimatedTotal, seen), false);
+    }
+
+    public boolean isTotalExact() {
+        return totalExact;
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.querydsl.controller.dto;
+
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+/**
+ * 페이지 + 같은 조건의 패싯 (totalElements 는 패싯 합계라 카운트 쿼리가 따로 없다.)
+ */
+public class FacetedPage<T> extends PageImpl<T> {
+
+    private final MemberFacets facets;
+
+    public FacetedPage(List<T> content, Pageable pageable, MemberFacets facets) {
+        super(content, pageable, facets.getTotal());
+        this.facets = facets;
+    }
+
+    public static <T> FacetedPage<T> empty(Pageable pageable) {
+        return new FacetedPage<>(List.of(), pageable, MemberFacets.empty());
+    }
+
+    public MemberFacets getFacets() {
+        return facets;
+    }
+}
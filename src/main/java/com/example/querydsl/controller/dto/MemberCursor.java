@@ -0,0 +1,72 @@
+package com.example.querydsl.controller.dto;
+
+import lombok.Getter;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * 커서 페이징의 위치 정보. 마지막으로 내려준 (정렬 키, member_id) 를 담는다.
+ * 클라이언트에는 "정렬:방향:정렬키값:memberId" 를 Base64 로 감싼 문자열로만 내려간다.
+ */
+@Getter
+public class MemberCursor {
+
+    private static final String DELIMITER = ":";
+
+    /**
+     * 한 번에 내려줄 수 있는 최대 건수 (스프링 데이터 Pageable 의 기본 최대 크기와 같다.)
+     */
+    public static final int MAX_SIZE = 2000;
+
+    private final MemberCursorSort sort;
+
+    private final Sort.Direction direction;
+
+    private final Long sortValue; // 첫 페이지면 null
+
+    private final Long memberId; // 첫 페이지면 null
+
+    private MemberCursor(MemberCursorSort sort, Sort.Direction direction, Long sortValue, Long memberId) {
+        this.sort = sort;
+        this.direction = direction;
+        this.sortValue = sortValue;
+        this.memberId = memberId;
+    }
+
+    public static MemberCursor first(MemberCursorSort sort, Sort.Direction direction) {
+        return new MemberCursor(sort, direction, null, null);
+    }
+
+    public static MemberCursor next(MemberCursor cursor, MemberTeamDto last) {
+        long sortValue = cursor.getSort() == MemberCursorSort.AGE ? last.getAge() : last.getMemberId();
+        return new MemberCursor(cursor.getSort(), cursor.getDirection(), sortValue, last.getMemberId());
+    }
+
+    public boolean isFirst() {
+        return memberId == null;
+    }
+
+    public String encode() {
+        String raw = sort + DELIMITER + direction + DELIMITER + sortValue + DELIMITER + memberId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static MemberCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] tokens = raw.split(DELIMITER);
+            if (tokens.length != 4) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            return new MemberCursor(
+                    MemberCursorSort.valueOf(tokens[0]),
+                    Sort.Direction.valueOf(tokens[1]),
+                    Long.valueOf(tokens[2]),
+                    Long.valueOf(tokens[3]));
+        } catch (IllegalArgumentException e) { // Base64, enum, 숫자 파싱 실패 모두 여기로
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.querydsl.controller.dto;
+
+/**
+ * 커서(keyset) 페이징에서 허용하는 정렬 키.
+ * 정렬 컬럼은 not null 이어야 (정렬 키, member_id) 비교가 성립하므로 여기 있는 것만 허용한다.
+ */
+public enum MemberCursorSort {
+
+    ID,
+
+    AGE
+}
@@ -1,5 +1,6 @@
 package com.example.querydsl.controller.dto;
 
+import com.example.querydsl.projection.DirectProjection;
 import com.querydsl.core.annotations.QueryProjection;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -16,6 +17,7 @@ public class MemberDto {
     }
 
     @QueryProjection // -> 어노테이션 추가후 그레이들 -> Tasks -> other -> compileQuerydsl 로 Q파일 생성
+    @DirectProjection // -> compileJava 때 MemberDtoProjection 생성
     public MemberDto(String userName, int age) {
         this.userName = userName;
         this.age = age;
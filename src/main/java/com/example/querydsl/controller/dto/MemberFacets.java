@@ -0,0 +1,62 @@
+package com.example.querydsl.controller.dto;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * 검색 결과 옆에 보여줄 나이대별/팀별 건수. 같은 검색 조건의 group by 한 번으로 만든다. (MemberRepositoryImpl.searchPageWithFacets)
+ */
+@Getter
+public class MemberFacets {
+
+    private static final MemberFacets EMPTY = new MemberFacets(0, List.of(), List.of());
+
+    private final long total; // 버킷 건수의 합 = 검색 결과 전체 건수
+
+    private final List<AgeBucket> ageBuckets; // from 오름차순
+
+    private final List<TeamCount> teams; // 건수 내림차순, 팀이 없는 회원은 teamId = null
+
+    public MemberFacets(long total, List<AgeBucket> ageBuckets, List<TeamCount> teams) {
+        this.total = total;
+        this.ageBuckets = ageBuckets;
+        this.teams = teams;
+    }
+
+    public static MemberFacets empty() {
+        return EMPTY;
+    }
+
+    @Getter
+    public static class AgeBucket {
+
+        private final int from; // 포함
+
+        private final int to; // 포함
+
+        private final long count;
+
+        public AgeBucket(int from, int to, long count) {
+            this.from = from;
+            this.to = to;
+            this.count = count;
+        }
+    }
+
+    @Getter
+    public static class TeamCount {
+
+        private final Long teamId;
+
+        private final String teamName;
+
+        private final long count;
+
+        public TeamCount(Long teamId, String teamName, long count) {
+            this.teamId = teamId;
+            this.teamName = teamName;
+            this.count = count;
+        }
+    }
+}
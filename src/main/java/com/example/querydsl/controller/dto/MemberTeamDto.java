@@ -1,5 +1,6 @@
 package com.example.querydsl.controller.dto;
 
+import com.example.querydsl.projection.DirectProjection;
 import com.querydsl.core.annotations.QueryProjection;
 import lombok.Data;
 
@@ -17,6 +18,7 @@ public class MemberTeamDto {
     private String teamName;
 
     @QueryProjection
+    @DirectProjection
     public MemberTeamDto(Long memberId, String userName, int age, Long teamId, String teamName) {
         this.memberId = memberId;
         this.userName = userName;
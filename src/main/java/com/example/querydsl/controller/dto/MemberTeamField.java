@@ -0,0 +1,58 @@
+package com.example.querydsl.controller.dto;
+
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * 검색 API 의 fields 파라미터로 고를 수 있는 컬럼 (MemberTeamDto 의 프로퍼티 이름과 같다)
+ * 고른 컬럼만 select 하고, team 컬럼(teamName)이 없으면 team 조인도 하지 않는다. teamId 는 member 의 FK 로 읽는다.
+ */
+public enum MemberTeamField {
+
+    MEMBER_ID("memberId", false),
+    USER_NAME("userName", false),
+    AGE("age", false),
+    TEAM_ID("teamId", false),
+    TEAM_NAME("teamName", true);
+
+    private final String property;
+    private final boolean teamColumn;
+
+    MemberTeamField(String property, boolean teamColumn) {
+        this.property = property;
+        this.teamColumn = teamColumn;
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    /**
+     * ex) [memberId, userName] -> {MEMBER_ID, USER_NAME}, 비어 있으면 전부
+     */
+    public static Set<MemberTeamField> parse(Collection<String> properties) {
+        if (properties == null || properties.isEmpty()) {
+            return EnumSet.allOf(MemberTeamField.class);
+        }
+
+        Set<MemberTeamField> fields = EnumSet.noneOf(MemberTeamField.class);
+        for (String property : properties) {
+            fields.add(of(property.trim()));
+        }
+        return fields;
+    }
+
+    public static boolean needsTeamJoin(Set<MemberTeamField> fields) {
+        return fields.stream().anyMatch(field -> field.teamColumn);
+    }
+
+    private static MemberTeamField of(String property) {
+        for (MemberTeamField field : values()) {
+            if (field.property.equals(property)) {
+                return field;
+            }
+        }
+        throw new IllegalArgumentException("unknown field: " + property);
+    }
+}
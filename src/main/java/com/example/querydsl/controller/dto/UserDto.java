@@ -1,5 +1,6 @@
 package com.example.querydsl.controller.dto;
 
+import com.example.querydsl.projection.DirectProjection;
 import lombok.Data;
 
 @Data
@@ -12,6 +13,7 @@ public class UserDto {
     public UserDto() {
     }
 
+    @DirectProjection
     public UserDto(String name, int age) {
         this.name = name;
         this.age = age;
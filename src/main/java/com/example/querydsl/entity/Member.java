@@ -1,17 +1,29 @@
 package com.example.querydsl.entity;
 
+import com.example.querydsl.entity.repository.MemberColumnStoreListener;
+import com.example.querydsl.entity.repository.MemberCountCacheListener;
 import lombok.*;
 
 import javax.persistence.*;
 
 @Entity
+@Table(indexes = { // 검색 조건(userNameEq, ageGoe/ageLoe)과 팀 조인에 맞춘 인덱스, columnList 는 엔티티 기준 컬럼 이름
+        @Index(name = "idx_member_user_name", columnList = "userName"),
+        @Index(name = "idx_member_team_age", columnList = "team_id, age"),
+        @Index(name = "idx_member_age", columnList = "age")
+})
+@EntityListeners({MemberCountCacheListener.class, MemberColumnStoreListener.class}) // 카운트 캐시 무효화, 읽기 모델 반영
 @Getter
 @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id", "userName", "age"})
 public class Member {
 
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // IDENTITY 는 insert 를 해야 id 를 알 수 있어서 JDBC 배치가 안 된다. -> 시퀀스 + pooled 로 id 를 미리 100개씩 받아온다.
+    // 시퀀스가 없는 MySQL 에서는 하이버네이트가 member_seq 테이블 (next_val 한 줄) 로 흉내 낸다. 100개씩 받아오는 건 같고
+    // 값은 별도 트랜잭션에서 올리므로 동시에 받아가도 안전하다. ddl-auto 를 안 쓰면 member_seq 테이블을 직접 만들어 둬야 한다.
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "member_seq_generator")
+    @SequenceGenerator(name = "member_seq_generator", sequenceName = "member_seq", allocationSize = 100)
     @Id
     @Column(name = "member_id")
     private Long id;
@@ -1,6 +1,11 @@
 package com.example.querydsl.entity;
 
+import com.example.querydsl.entity.repository.MemberColumnStoreListener;
+import com.example.querydsl.entity.repository.MemberCountCacheListener;
+import com.example.querydsl.entity.repository.TeamIdDictionaryListener;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
 import java.util.ArrayList;
@@ -9,11 +14,17 @@ import java.util.List;
 @Getter
 @Setter
 @Entity
+@Table(indexes = @Index(name = "idx_team_name", columnList = "name")) // 이름으로 team_id 조회 (TeamIdDictionary)
+@EntityListeners({TeamIdDictionaryListener.class, MemberCountCacheListener.class, MemberColumnStoreListener.class}) // 팀 이름 사전, 카운트 캐시 무효화, 읽기 모델 반영
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE) // 거의 안 바뀌므로 2차 캐시 (ehcache.xml)
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id", "name"})
 public class Team {
 
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Member 와 마찬가지로 배치 insert 를 위해 시퀀스 사용 (MySQL 에서는 team_seq 테이블로 흉내, Member 참고)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "team_seq_generator")
+    @SequenceGenerator(name = "team_seq_generator", sequenceName = "team_seq", allocationSize = 50)
     @Id
     @Column(name = "team_id")
     private Long id;
@@ -0,0 +1,109 @@
+package com.example.querydsl.entity.repository;
+
+import com.example.querydsl.entity.Member;
+import com.example.querydsl.entity.Team;
+import lombok.Getter;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 대량 회원 적재용.
+ * <ul>
+ *     <li>id 는 시퀀스(pooled)로 미리 받아오므로 insert 가 hibernate.jdbc.batch_size 단위로 묶여서 나간다.</li>
+ *     <li>batchSize 마다 flush + clear 해서 영속성 컨텍스트가 커지지 않게 한다.</li>
+ *     <li>commitSize 마다 커밋해서 한 트랜잭션이 너무 길어지지 않게 한다.</li>
+ * </ul>
+ */
+@Slf4j
+@Repository
+public class MemberBulkLoader {
+
+    @PersistenceContext
+    private EntityManager em;
+
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int commitSize;
+
+    public MemberBulkLoader(PlatformTransactionManager transactionManager,
+                            @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:500}") int batchSize,
+                            @Value("${querydsl.bulk-load.commit-size:50000}") int commitSize) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.commitSize = commitSize;
+    }
+
+    public LoadResult load(int teamCount, int memberCount) {
+        long start = System.nanoTime();
+
+        List<Long> teamIds = transactionTemplate.execute(status -> persistTeams(teamCount));
+
+        for (int from = 0; from < memberCount; from += commitSize) {
+            int to = Math.min(from + commitSize, memberCount);
+            int chunkStart = from;
+            transactionTemplate.executeWithoutResult(status -> persistMembers(teamIds, chunkStart, to));
+        }
+
+        LoadResult result = new LoadResult(teamCount + memberCount, System.nanoTime() - start);
+        log.info("bulk load finished : {}", result);
+        return result;
+    }
+
+    private List<Long> persistTeams(int teamCount) {
+        List<Long> teamIds = new ArrayList<>(teamCount);
+        for (int i = 1; i <= teamCount; i++) {
+            Team team = new Team("team" + i);
+            em.persist(team); // 시퀀스라 persist 시점에 id 가 정해진다. (insert 는 flush 때 배치로)
+            teamIds.add(team.getId());
+            if (i % batchSize == 0) {
+                flushAndClear();
+            }
+        }
+        flushAndClear();
+        return teamIds;
+    }
+
+    private void persistMembers(List<Long> teamIds, int from, int to) {
+        for (int i = from; i < to; i++) {
+            // new Member(name, age, team) 은 team.getMembers() 에도 추가하므로 쓰지 않는다. -> 팀 컬렉션이 계속 커짐
+            Member member = new Member("member" + (i + 1), i % 100 + 1);
+            if (!teamIds.isEmpty()) {
+                member.setTeam(em.getReference(Team.class, teamIds.get(i % teamIds.size()))); // 프록시라 select 없음
+            }
+            em.persist(member);
+            if ((i - from + 1) % batchSize == 0) {
+                flushAndClear();
+            }
+        }
+        flushAndClear();
+    }
+
+    private void flushAndClear() {
+        em.flush();
+        em.clear();
+    }
+
+    @Getter
+    @ToString
+    public static class LoadResult {
+
+        private final long rows;
+        private final long elapsedMillis;
+        private final long rowsPerSecond;
+
+        public LoadResult(long rows, long elapsedNanos) {
+            this.rows = rows;
+            this.elapsedMillis = elapsedNanos / 1_000_000;
+            this.rowsPerSecond = elapsedNanos == 0 ? rows : rows * 1_000_000_000L / elapsedNanos;
+        }
+    }
+}
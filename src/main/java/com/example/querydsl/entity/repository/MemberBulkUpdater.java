@@ -0,0 +1,220 @@
+package com.example.querydsl.entity.repository;
+
+import com.example.querydsl.entity.Member;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.querydsl.jpa.impl.JPAUpdateClause;
+import lombok.Getter;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.EntityKey;
+import org.hibernate.engine.spi.PersistenceContext;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.Status;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static com.example.querydsl.entity.QMember.member;
+
+/**
+ * 대량 회원 update / delete 용. queryFactory.update(member).where(...).execute() 는 조건에 맞는 로우 전체를 문장 하나로 바꾸므로
+ * 락을 오래 잡고 undo 가 한꺼번에 쌓인다. 여기서는 member_id 순으로 chunkSize 건씩 잘라서 나눠 처리한다.
+ * <ul>
+ *     <li>chunk 마다 조건에 맞는 member_id 를 chunkSize 건 읽고 (member_id > 직전 chunk 의 마지막 id), 그 id 범위 + 조건으로 update/delete 한다.</li>
+ *     <li>chunk 마다 새 트랜잭션(REQUIRES_NEW)으로 커밋하고 pauseMillis 만큼 쉰다. -> 다른 트랜잭션이 끼어들 틈을 준다.</li>
+ *     <li>호출 쪽 트랜잭션의 영속성 컨텍스트에서는 이번에 바뀐 회원만 detach 한다. em.clear() 없이 다음 조회 때 DB 값을 다시 읽는다.</li>
+ *     <li>호출 쪽 영속성 컨텍스트에 flush 안 된 회원 변경이 있으면 시작하기 전에 IllegalStateException.
+ *     detach 하면 그 변경이 조용히 사라지고, 대신 flush 하면 chunk 트랜잭션이 호출 쪽이 잡은 로우 락을 기다리게 된다.</li>
+ *     <li>chunk 가 끝날 때마다 listener 로 진행 상황을 넘긴다.</li>
+ * </ul>
+ * 조건은 member 컬럼(member.team.id 포함)만 쓸 수 있다. (JPQL 벌크 연산은 join 불가)
+ * 호출 쪽 트랜잭션이 같은 회원을 수정한 채로 부르면 chunk 트랜잭션이 그 로우 락을 기다리므로 먼저 커밋하고 부른다.
+ */
+@Slf4j
+@Repository
+public class MemberBulkUpdater {
+
+    private final EntityManager em;
+    private final TransactionTemplate chunkTransaction;
+    private final int chunkSize;
+    private final long pauseMillis;
+
+    public MemberBulkUpdater(EntityManager em, PlatformTransactionManager transactionManager,
+                             @Value("${querydsl.bulk-update.chunk-size:1000}") int chunkSize,
+                             @Value("${querydsl.bulk-update.pause-millis:0}") long pauseMillis) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize must be positive: " + chunkSize);
+        }
+        this.em = em;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.chunkSize = chunkSize;
+        this.pauseMillis = pauseMillis;
+    }
+
+    /**
+     * ex) update(member.age.lt(28), clause -> clause.set(member.userName, "비회원"), progress -> log.info("{}", progress))
+     */
+    public Progress update(Predicate predicate, Consumer<JPAUpdateClause> assignments, Consumer<Progress> listener) {
+        return run("update", predicate, listener, (queryFactory, first, last) -> {
+            JPAUpdateClause clause = queryFactory.update(member);
+            assignments.accept(clause);
+            return clause.where(predicate, member.id.between(first, last)).execute();
+        });
+    }
+
+    public Progress delete(Predicate predicate, Consumer<Progress> listener) {
+        return run("delete", predicate, listener, (queryFactory, first, last) -> queryFactory
+                .delete(member)
+                .where(predicate, member.id.between(first, last))
+                .execute());
+    }
+
+    private Progress run(String operation, Predicate predicate, Consumer<Progress> listener, ChunkStatement statement) {
+        checkNoPendingChanges();
+        long start = System.nanoTime();
+        Progress progress = new Progress(0, 0, null, 0);
+        Long lastId = null;
+        while (true) {
+            Long after = lastId;
+            Chunk chunk = chunkTransaction.execute(status -> {
+                JPAQueryFactory queryFactory = new JPAQueryFactory(em);
+                List<Long> ids = queryFactory
+                        .select(member.id)
+                        .from(member)
+                        .where(predicate, after != null ? member.id.gt(after) : null)
+                        .orderBy(member.id.asc())
+                        .limit(chunkSize)
+                        .fetch();
+                if (ids.isEmpty()) {
+                    return null;
+                }
+                long rows = statement.execute(queryFactory, ids.get(0), ids.get(ids.size() - 1));
+                return new Chunk(ids, rows);
+            });
+            if (chunk == null) {
+                break;
+            }
+
+            evict(chunk.ids); // 커밋된 뒤 호출 쪽 영속성 컨텍스트 정리
+            lastId = chunk.ids.get(chunk.ids.size() - 1);
+            progress = new Progress(progress.chunks + 1, progress.rows + chunk.rows, lastId, System.nanoTime() - start);
+            log.debug("bulk {} : {}", operation, progress);
+            listener.accept(progress);
+
+            if (chunk.ids.size() < chunkSize) {
+                break;
+            }
+            pause();
+        }
+        log.info("bulk {} finished : {}", operation, progress);
+        return progress;
+    }
+
+    /**
+     * 호출 쪽 영속성 컨텍스트의 회원 중 로딩한 뒤 값이 바뀐 (flush 전) 것이 있으면 실패시킨다. 어느 회원이 이번 조건에 걸릴지는 chunk 를 읽어 봐야 알기 때문에 전부 본다.
+     */
+    private void checkNoPendingChanges() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return;
+        }
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        EntityPersister persister = session.getFactory().getMetamodel().entityPersister(Member.class);
+        for (Map.Entry<Object, EntityEntry> entry : session.getPersistenceContextInternal().reentrantSafeEntityEntries()) {
+            EntityEntry entityEntry = entry.getValue();
+            if (entityEntry.getPersister() != persister || entityEntry.getStatus() != Status.MANAGED
+                    || entityEntry.getLoadedState() == null) {
+                continue;
+            }
+            Object entity = entry.getKey();
+            int[] dirty = persister.findDirty(persister.getPropertyValues(entity), entityEntry.getLoadedState(), entity, session);
+            if (dirty != null) {
+                throw new IllegalStateException("member " + entityEntry.getId()
+                        + " has unflushed changes; commit them before running a bulk update/delete");
+            }
+        }
+    }
+
+    /**
+     * 호출 쪽 트랜잭션의 영속성 컨텍스트에 올라와 있는 회원(프록시 포함)만 detach 한다. 없는 id 는 로딩하지 않고 넘어간다.
+     * 트랜잭션이 없으면 공유 EntityManager 가 호출마다 새로 만들어지므로 정리할 것도 없다.
+     */
+    private void evict(List<Long> ids) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return;
+        }
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        EntityPersister persister = session.getFactory().getMetamodel().entityPersister(Member.class);
+        PersistenceContext persistenceContext = session.getPersistenceContextInternal();
+        for (Long id : ids) {
+            EntityKey key = session.generateEntityKey(id, persister);
+            Object entity = persistenceContext.getEntity(key);
+            if (entity != null) {
+                em.detach(entity);
+            }
+            Object proxy = persistenceContext.getProxy(key);
+            if (proxy != null) {
+                em.detach(proxy);
+            }
+        }
+    }
+
+    private void pause() {
+        if (pauseMillis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(pauseMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted between bulk chunks", e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface ChunkStatement {
+        long execute(JPAQueryFactory queryFactory, Long firstId, Long lastId);
+    }
+
+    private static class Chunk {
+
+        private final List<Long> ids;
+        private final long rows;
+
+        private Chunk(List<Long> ids, long rows) {
+            this.ids = ids;
+            this.rows = rows;
+        }
+    }
+
+    /**
+     * 지금까지 커밋한 chunk 수, 바뀐 로우 수, 마지막으로 처리한 member_id
+     */
+    @Getter
+    @ToString
+    public static class Progress {
+
+        private final long chunks;
+        private final long rows;
+        private final Long lastId;
+        private final long elapsedMillis;
+
+        public Progress(long chunks, long rows, Long lastId, long elapsedNanos) {
+            this.chunks = chunks;
+            this.rows = rows;
+            this.lastId = lastId;
+            this.elapsedMillis = elapsedNanos / 1_000_000;
+        }
+    }
+}
@@ -0,0 +1,730 @@
+package com.example.querydsl.entity.repository;
+
+import com.example.querydsl.controller.dto.MemberSearchCondition;
+import com.example.querydsl.controller.dto.MemberTeamDto;
+import com.example.querydsl.entity.Member;
+import com.example.querydsl.entity.Team;
+import com.example.querydsl.entity.repository.TeamIdDictionary.TeamIds;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.annotations.QueryHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static org.springframework.util.StringUtils.hasText;
+
+/**
+ * 회원 검색용 인메모리 읽기 모델 (querydsl.read-model.enabled=true 일 때만). search / searchPageComplex 를 DB 없이 처리한다.
+ * <p>
+ * 회원 한 명을 객체로 두지 않고 컬럼별 primitive 배열의 같은 위치(row)에 나눠 담는다.
+ * <ul>
+ *     <li>member_id -> long[], age -> int[]</li>
+ *     <li>userName, 팀 -> 사전 인코딩. 이름/팀마다 한 번만 저장하고 row 에는 int 코드만 둔다.</li>
+ *     <li>age 범위 -> 나이순으로 정렬한 row 번호 인덱스를 이진 탐색</li>
+ *     <li>teamName -> TeamIdDictionary 가 바꿔준 team_id 를 팀 코드로 바꿔서 비교</li>
+ * </ul>
+ * 결과는 member_id 순이고 DTO 는 응답할 페이지만큼만 만든다.
+ * <p>
+ * 엔티티로 바꾼 Member / Team (MemberColumnStoreListener) 은 트랜잭션에 모아 두었다가 커밋되면 바뀐 row 만 반영한다.
+ * 스냅샷은 고치지 않고, 안 바뀐 row 는 구간째 복사하고 바뀐 row 만 끼워 넣은 새 스냅샷으로 갈아끼운다. (DB 재조회, 재정렬 없음)
+ * 벌크 update/delete (MemberTableStatementInspector) 는 어떤 row 가 바뀌었는지 모르므로 통째로 비우고 다음 검색 때 다시 읽는다.
+ * <ul>
+ *     <li>쓰기 트랜잭션 안에서는 자기 변경이 보여야 하므로 DB 로 간다.</li>
+ *     <li>다시 읽을 때는 별도 쓰기 트랜잭션(REQUIRES_NEW)으로 프라이머리에서 읽는다. 검색은 readOnly 라서 그대로 읽으면
+ *     지연된 레플리카의 낡은 스냅샷이 다음 쓰기 때까지 남는다.</li>
+ *     <li>다른 인스턴스의 쓰기는 이벤트가 안 오므로 ttlMillis 가 지나면 다시 읽는다. 반영한 변경은 ttl 을 늘리지 않는다.
+ *     (같은 회원을 동시에 커밋한 두 트랜잭션의 반영 순서가 뒤바뀌어도 ttl 안에서 바로잡힌다.)</li>
+ * </ul>
+ */
+@Component
+public class MemberColumnStore {
+
+    private static final int NO_CODE = -1; // 팀 없음, 이름 없음
+    private static final int LOAD_FETCH_SIZE = 1000;
+
+    private final EntityManager em;
+    private final TransactionTemplate loadTransaction;
+    private final boolean enabled;
+    private final long ttlMillis;
+
+    private final Object loadLock = new Object(); // 비워진 직후 여러 요청이 동시에 전체 로딩을 하지 않도록
+    private final AtomicLong generation = new AtomicLong(); // 비울 때마다 증가 -> 비우기 전에 읽기 시작한 스냅샷이 뒤늦게 들어오는 것을 막는다.
+    private volatile Columns columns; // null 이면 다음 검색 때 다시 읽는다.
+
+    public MemberColumnStore(EntityManager em, PlatformTransactionManager transactionManager, MeterRegistry registry,
+                             @Value("${querydsl.read-model.enabled:false}") boolean enabled,
+                             @Value("${querydsl.read-model.ttl-millis:60000}") long ttlMillis) {
+        this.em = em;
+        this.loadTransaction = new TransactionTemplate(transactionManager);
+        this.loadTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW); // readOnly 아님 -> 프라이머리
+        this.enabled = enabled;
+        this.ttlMillis = ttlMillis;
+        Gauge.builder("member.read-model.rows", this, MemberColumnStore::rows).register(registry);
+        Gauge.builder("member.read-model.bytes", this, MemberColumnStore::bytes).register(registry);
+    }
+
+    /**
+     * 지금 호출에서 읽기 모델을 써도 되는지
+     */
+    public boolean isServing() {
+        return enabled && !isInWriteTransaction();
+    }
+
+    public List<MemberTeamDto> search(MemberSearchCondition condition, TeamIds teamIds) {
+        Columns current = columns();
+        return current.toDtos(current.matches(condition, teamIds), 0, Integer.MAX_VALUE);
+    }
+
+    public Page<MemberTeamDto> searchPage(MemberSearchCondition condition, TeamIds teamIds, Pageable pageable) {
+        Columns current = columns();
+        int[] rows = current.matches(condition, teamIds);
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(current.toDtos(rows, 0, rows.length), pageable, rows.length);
+        }
+        return new PageImpl<>(current.toDtos(rows, pageable.getOffset(), pageable.getPageSize()), pageable, rows.length);
+    }
+
+    /**
+     * 지금 올라가 있는 컬럼 배열 + 이름 사전이 차지하는 힙 크기(추정)를 회원 수로 나눈 값. 비어 있으면 0
+     * 실제 힙 크기와의 차이는 MemberColumnStoreTest 에서 잰다.
+     */
+    public double bytesPerMember() {
+        Columns current = columns;
+        return current == null || current.size == 0 ? 0 : (double) current.footprintBytes() / current.size;
+    }
+
+    private double rows() {
+        Columns current = columns;
+        return current != null ? current.size : 0;
+    }
+
+    private double bytes() {
+        Columns current = columns;
+        return current != null ? current.footprintBytes() : 0;
+    }
+
+    // 테스트에서 실제 힙 크기를 잴 때 쓴다.
+    Object snapshot() {
+        return columns;
+    }
+
+    /**
+     * Member / Team 저장, 수정 (MemberColumnStoreListener). 트랜잭션이 있으면 커밋될 때 반영하고 롤백이면 버린다.
+     */
+    public void changed(Object entity) {
+        record(entity, false);
+    }
+
+    /**
+     * Member / Team 삭제 (MemberColumnStoreListener)
+     */
+    public void removed(Object entity) {
+        record(entity, true);
+    }
+
+    public void invalidateAll() {
+        synchronized (this) {
+            generation.incrementAndGet();
+            columns = null;
+        }
+    }
+
+    /**
+     * 지금 비우고, 트랜잭션이 있으면 끝날 때 한 번 더 비운다. (MemberCountCache 와 같은 이유)
+     * 그 트랜잭션에서 모은 엔티티 변경은 반영하지 않는다. (어차피 다시 읽는다.)
+     */
+    public void invalidateAllAfterCompletion() {
+        invalidateAll();
+        Changes pending = pending();
+        if (pending != null) {
+            pending.reload = true;
+        }
+    }
+
+    private void record(Object entity, boolean removed) {
+        if (!enabled) {
+            return;
+        }
+        Changes pending = pending();
+        Changes changes = pending != null ? pending : new Changes();
+        if (entity instanceof Member) {
+            changes.member((Member) entity, removed);
+        } else if (entity instanceof Team) {
+            changes.team((Team) entity, removed);
+        }
+        if (pending == null) { // 트랜잭션 밖 -> 바로 반영
+            apply(changes);
+        }
+    }
+
+    /*
+    * 지금 트랜잭션에 모아 둔 변경, 트랜잭션이 없으면 null
+    * bindResource 는 REQUIRES_NEW 로 바깥 트랜잭션을 멈춰도 그대로 보이므로 트랜잭션마다 따로 관리되는 synchronization 에 담는다.
+    * */
+    private Changes pending() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof PendingChanges && ((PendingChanges) synchronization).belongsTo(this)) {
+                return ((PendingChanges) synchronization).changes;
+            }
+        }
+        PendingChanges created = new PendingChanges();
+        TransactionSynchronizationManager.registerSynchronization(created);
+        return created.changes;
+    }
+
+    private void apply(Changes changes) {
+        synchronized (this) {
+            generation.incrementAndGet(); // 지금 로딩 중인 스냅샷은 이 커밋 전에 읽었을 수 있다.
+            Columns current = columns;
+            if (current != null) {
+                columns = current.apply(changes); // 모르는 팀을 가리키면 null -> 다음 검색 때 다시 읽는다.
+            }
+        }
+    }
+
+    private Columns columns() {
+        Columns current = columns;
+        if (current != null && !current.isExpired(ttlMillis)) {
+            return current;
+        }
+        synchronized (loadLock) {
+            current = columns;
+            if (current != null && !current.isExpired(ttlMillis)) {
+                return current;
+            }
+            long startGeneration = generation.get();
+            Columns loaded = load();
+            synchronized (this) {
+                if (generation.get() == startGeneration) { // 로딩 중에 invalidateAll 이 불렸으면 이번 결과만 쓰고 버린다.
+                    columns = loaded;
+                }
+            }
+            return loaded;
+        }
+    }
+
+    private Columns load() {
+        return loadTransaction.execute(status -> {
+            Columns.Builder builder = new Columns.Builder();
+            for (Object[] row : em.createQuery("select t.id, t.name from Team t", Object[].class).getResultList()) {
+                builder.addTeam((Long) row[0], (String) row[1]);
+            }
+
+            try (Stream<Object[]> rows = em.createQuery(
+                            "select m.id, m.userName, m.age, m.team.id from Member m order by m.id", Object[].class)
+                    .setHint(QueryHints.FETCH_SIZE, LOAD_FETCH_SIZE)
+                    .setHint(QueryHints.READ_ONLY, true)
+                    .getResultStream()) {
+                rows.forEach(row -> builder.add((Long) row[0], (String) row[1], (Integer) row[2], (Long) row[3]));
+            }
+            return builder.build();
+        });
+    }
+
+    private static boolean isInWriteTransaction() {
+        return TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    private final class PendingChanges implements TransactionSynchronization {
+
+        private final Changes changes = new Changes();
+
+        private boolean belongsTo(MemberColumnStore store) {
+            return store == MemberColumnStore.this;
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            if (changes.reload || status == STATUS_UNKNOWN) {
+                invalidateAll();
+            } else if (status == STATUS_COMMITTED) {
+                apply(changes);
+            }
+        }
+    }
+
+    /**
+     * 한 트랜잭션에서 바뀐 회원, 팀. 같은 회원이 여러 번 바뀌면 마지막 상태만 남는다.
+     * 바뀐 뒤의 상태를 통째로 들고 있으므로 이미 반영된 스냅샷에 한 번 더 반영해도 결과가 같다.
+     */
+    private static final class Changes {
+
+        private final NavigableMap<Long, MemberRow> members = new TreeMap<>(); // member_id 순
+        private final Map<Long, String> teamNames = new HashMap<>(); // 새로 생기거나 이름이 바뀐 팀
+        private boolean reload; // 벌크 쓰기가 있었다 -> 어떤 row 가 바뀌었는지 모른다.
+
+        private void member(Member member, boolean removed) {
+            Long teamId = member.getTeam() != null ? member.getTeam().getId() : null;
+            members.put(member.getId(), new MemberRow(member.getId(), member.getUserName(), member.getAge(), teamId, removed));
+        }
+
+        private void team(Team team, boolean removed) {
+            if (!removed) { // 지운 팀은 사전에 남겨 둔다. (FK 때문에 가리키는 회원이 없어야 지워진다.)
+                teamNames.put(team.getId(), team.getName());
+            }
+        }
+    }
+
+    private static final class MemberRow {
+
+        private final long id;
+        private final String userName;
+        private final int age;
+        private final Long teamId;
+        private final boolean removed;
+
+        private MemberRow(long id, String userName, int age, Long teamId, boolean removed) {
+            this.id = id;
+            this.userName = userName;
+            this.age = age;
+            this.teamId = teamId;
+            this.removed = removed;
+        }
+    }
+
+    /**
+     * 한 번 만들면 바뀌지 않는 스냅샷. 바뀌면 새로 만들어서 통째로 갈아끼운다.
+     * 회원 한 명당 ids 8 + ages 4 + teamCodes 4 + nameCodes 4 + rowsByAge 4 = 24 바이트 (+ 이름/팀 사전)
+     */
+    private static final class Columns {
+
+        private final int size;
+        private final long[] ids;
+        private final int[] ages;
+        private final int[] teamCodes; // 팀 사전 코드
+        private final int[] nameCodes; // 이름 사전 코드
+        private final int[] rowsByAge; // 나이순 row 번호 (같은 나이는 member_id 순)
+
+        private final String[] names; // 이름 코드 -> 이름
+        private final Map<String, Integer> codeByName;
+        private final long[] teamIdsByCode; // 팀 코드 -> team_id
+        private final String[] teamNamesByCode; // 팀 코드 -> 팀 이름
+        private final Map<Long, Integer> codeByTeamId;
+        private final long loadedAt;
+
+        private Columns(Builder builder) {
+            this.size = builder.size;
+            this.ids = Arrays.copyOf(builder.ids, size);
+            this.ages = Arrays.copyOf(builder.ages, size);
+            this.teamCodes = Arrays.copyOf(builder.teamCodes, size);
+            this.nameCodes = Arrays.copyOf(builder.nameCodes, size);
+            this.names = builder.names.toArray(new String[0]);
+            this.codeByName = builder.codeByName;
+            this.teamIdsByCode = builder.teamIds.stream().mapToLong(Long::longValue).toArray();
+            this.teamNamesByCode = builder.teamNames.toArray(new String[0]);
+            this.codeByTeamId = builder.codeByTeamId;
+            this.loadedAt = System.currentTimeMillis();
+
+            // (age, row) 를 long 하나로 묶어서 정렬 -> Integer 박싱 없이 나이순 인덱스를 만든다.
+            long[] keys = new long[size];
+            for (int row = 0; row < size; row++) {
+                keys[row] = ((long) ages[row] << 32) | row;
+            }
+            Arrays.sort(keys);
+            this.rowsByAge = new int[size];
+            for (int i = 0; i < size; i++) {
+                rowsByAge[i] = (int) keys[i];
+            }
+        }
+
+        private Columns(Patch patch) {
+            this.size = patch.size;
+            this.ids = patch.ids;
+            this.ages = patch.ages;
+            this.teamCodes = patch.teamCodes;
+            this.nameCodes = patch.nameCodes;
+            this.rowsByAge = patch.rowsByAge;
+            this.names = patch.names;
+            this.codeByName = patch.codeByName;
+            this.teamIdsByCode = patch.teamIdsByCode;
+            this.teamNamesByCode = patch.teamNamesByCode;
+            this.codeByTeamId = patch.codeByTeamId;
+            this.loadedAt = patch.base.loadedAt; // 반영한 변경은 ttl 을 늘리지 않는다.
+        }
+
+        /**
+         * 바뀐 회원, 팀만 반영한 새 스냅샷. 스냅샷에 없는 팀을 가리키는 회원이 있으면 팀 이름을 모르므로 null
+         */
+        private Columns apply(Changes changes) {
+            Patch patch = new Patch(this);
+            patch.teams(changes.teamNames);
+            if (changes.members.isEmpty()) {
+                return patch.build();
+            }
+            for (MemberRow row : changes.members.values()) {
+                if (!row.removed && row.teamId != null && !patch.codeByTeamId.containsKey(row.teamId)) {
+                    return null;
+                }
+            }
+            return patch.members(changes.members.values()).build();
+        }
+
+        /**
+         * 조건에 맞는 row 번호 (member_id 순)
+         */
+        private int[] matches(MemberSearchCondition condition, TeamIds teamIds) {
+            int nameCode = NO_CODE;
+            if (hasText(condition.getUserName())) {
+                Integer code = codeByName.get(condition.getUserName());
+                if (code == null) { // 사전에 없는 이름 -> 비교할 필요도 없다.
+                    return new int[0];
+                }
+                nameCode = code;
+            }
+            int[] teams = teamIds.getIds() != null ? teamCodes(teamIds.getIds()) : null;
+            if (teams != null && teams.length == 0) { // 스냅샷을 읽은 뒤 생긴 팀
+                return new int[0];
+            }
+
+            int[] candidates = ageCandidates(condition.getAgeGoe(), condition.getAgeLoe());
+            int[] result = new int[candidates != null ? candidates.length : size];
+            int count = 0;
+            for (int i = 0; i < result.length; i++) {
+                int row = candidates != null ? candidates[i] : i;
+                if ((nameCode == NO_CODE || nameCodes[row] == nameCode) && (teams == null || contains(teams, teamCodes[row]))) {
+                    result[count++] = row;
+                }
+            }
+            return Arrays.copyOf(result, count);
+        }
+
+        /**
+         * 나이 조건이 있으면 인덱스에서 범위만 잘라서 member_id 순으로 돌려준다. 없으면 null (전체)
+         */
+        private int[] ageCandidates(Integer ageGoe, Integer ageLoe) {
+            if (ageGoe == null && ageLoe == null) {
+                return null;
+            }
+            int from = ageGoe != null ? lowerBound(ageGoe) : 0;
+            int to = ageLoe != null ? lowerBound((long) ageLoe + 1) : size;
+            if (from >= to) {
+                return new int[0];
+            }
+            int[] rows = Arrays.copyOfRange(rowsByAge, from, to);
+            Arrays.sort(rows); // row 번호 순 = member_id 순
+            return rows;
+        }
+
+        // 나이순 인덱스에서 age 이상이 처음 나오는 위치
+        private int lowerBound(long age) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (ages[rowsByAge[mid]] < age) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private List<MemberTeamDto> toDtos(int[] rows, long offset, int limit) {
+            int from = (int) Math.min(offset, rows.length);
+            int to = (int) Math.min((long) from + limit, rows.length);
+            List<MemberTeamDto> content = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                int row = rows[i];
+                int teamCode = teamCodes[row];
+                content.add(new MemberTeamDto(
+                        ids[row],
+                        nameCodes[row] != NO_CODE ? names[nameCodes[row]] : null,
+                        ages[row],
+                        teamCode != NO_CODE ? teamIdsByCode[teamCode] : null,
+                        teamCode != NO_CODE ? teamNamesByCode[teamCode] : null));
+            }
+            return content;
+        }
+
+        private int[] teamCodes(List<Long> teamIds) {
+            return teamIds.stream()
+                    .map(codeByTeamId::get)
+                    .filter(Objects::nonNull)
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+        }
+
+        /**
+         * 배열 헤더 16바이트 + 원소, 문자열은 compact string 기준 (객체 24 + byte[] 16 + 길이) 에 사전 맵 엔트리 32바이트로 어림한다.
+         */
+        private long footprintBytes() {
+            long bytes = array(size, Long.BYTES) // ids
+                    + array(size, Integer.BYTES) * 4 // ages, teamCodes, nameCodes, rowsByAge
+                    + array(names.length, 4)
+                    + array(teamIdsByCode.length, Long.BYTES)
+                    + array(teamNamesByCode.length, 4);
+            for (String name : names) {
+                bytes += string(name) + 32;
+            }
+            for (String teamName : teamNamesByCode) {
+                bytes += string(teamName) + 32;
+            }
+            return bytes;
+        }
+
+        private boolean isExpired(long ttlMillis) {
+            return System.currentTimeMillis() - loadedAt >= ttlMillis;
+        }
+
+        private static long array(int length, int elementBytes) {
+            return 16 + (long) length * elementBytes;
+        }
+
+        private static long string(String value) {
+            return value != null ? 24 + array(value.length(), 1) : 0;
+        }
+
+        private static boolean contains(int[] values, int value) {
+            for (int v : values) { // 같은 이름의 팀은 몇 개 안 되므로 선형 탐색
+                if (v == value) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static final class Builder {
+
+            private final List<String> names = new ArrayList<>();
+            private final Map<String, Integer> codeByName = new HashMap<>();
+            private final List<Long> teamIds = new ArrayList<>();
+            private final List<String> teamNames = new ArrayList<>();
+            private final Map<Long, Integer> codeByTeamId = new HashMap<>();
+            private int size;
+            private long[] ids = new long[1024];
+            private int[] ages = new int[1024];
+            private int[] teamCodes = new int[1024];
+            private int[] nameCodes = new int[1024];
+
+            private void addTeam(Long teamId, String teamName) {
+                codeByTeamId.computeIfAbsent(teamId, id -> {
+                    teamIds.add(id);
+                    teamNames.add(teamName);
+                    return teamIds.size() - 1;
+                });
+            }
+
+            private void add(Long id, String userName, Integer age, Long teamId) {
+                if (size == ids.length) {
+                    int capacity = size * 2;
+                    ids = Arrays.copyOf(ids, capacity);
+                    ages = Arrays.copyOf(ages, capacity);
+                    teamCodes = Arrays.copyOf(teamCodes, capacity);
+                    nameCodes = Arrays.copyOf(nameCodes, capacity);
+                }
+                if (teamId != null) {
+                    addTeam(teamId, null); // 팀 목록을 읽은 뒤에 생긴 팀이면 이름 없이 추가
+                }
+                ids[size] = id;
+                ages[size] = age;
+                teamCodes[size] = teamId != null ? codeByTeamId.get(teamId) : NO_CODE;
+                nameCodes[size] = userName != null ? codeByName.computeIfAbsent(userName, this::newName) : NO_CODE;
+                size++;
+            }
+
+            private int newName(String userName) {
+                names.add(userName);
+                return names.size() - 1;
+            }
+
+            private Columns build() {
+                return new Columns(this);
+            }
+        }
+
+        /**
+         * 기존 스냅샷에 바뀐 row 만 끼워 넣는다. 기존 배열은 건드리지 않는다. (읽는 중인 검색이 있을 수 있다.)
+         * <ul>
+         *     <li>회원 -> member_id 순이므로 바뀐 회원의 자리를 이진 탐색하고, 그 사이의 안 바뀐 row 는 구간째 복사</li>
+         *     <li>나이 인덱스 -> 안 바뀐 row 는 기존 순서 그대로 번호만 바꾸고, 바뀐 row 만 정렬해서 병합</li>
+         *     <li>이름/팀 사전 -> 새 이름, 새 팀, 팀 이름 변경이 있을 때만 복사</li>
+         * </ul>
+         */
+        private static final class Patch {
+
+            private final Columns base;
+            private int size;
+            private long[] ids;
+            private int[] ages;
+            private int[] teamCodes;
+            private int[] nameCodes;
+            private int[] rowsByAge;
+            private String[] names;
+            private Map<String, Integer> codeByName;
+            private long[] teamIdsByCode;
+            private String[] teamNamesByCode;
+            private Map<Long, Integer> codeByTeamId;
+
+            private List<String> addedNames; // 이름 사전을 복사한 뒤에만 null 이 아니다.
+            private int[] oldToNew; // 기존 row -> 새 row, 바뀌거나 지워진 row 는 -1
+            private int from; // 다음에 복사할 기존 row
+            private int to; // 다음에 채울 새 row
+
+            private Patch(Columns base) {
+                this.base = base;
+                this.size = base.size;
+                this.ids = base.ids;
+                this.ages = base.ages;
+                this.teamCodes = base.teamCodes;
+                this.nameCodes = base.nameCodes;
+                this.rowsByAge = base.rowsByAge;
+                this.names = base.names;
+                this.codeByName = base.codeByName;
+                this.teamIdsByCode = base.teamIdsByCode;
+                this.teamNamesByCode = base.teamNamesByCode;
+                this.codeByTeamId = base.codeByTeamId;
+            }
+
+            private void teams(Map<Long, String> changedTeamNames) {
+                if (changedTeamNames.isEmpty()) {
+                    return;
+                }
+                int teamCount = teamIdsByCode.length;
+                teamIdsByCode = Arrays.copyOf(teamIdsByCode, teamCount + changedTeamNames.size());
+                teamNamesByCode = Arrays.copyOf(teamNamesByCode, teamIdsByCode.length);
+                codeByTeamId = new HashMap<>(codeByTeamId);
+                for (Map.Entry<Long, String> team : changedTeamNames.entrySet()) {
+                    Integer code = codeByTeamId.get(team.getKey());
+                    if (code == null) {
+                        code = teamCount++;
+                        codeByTeamId.put(team.getKey(), code);
+                        teamIdsByCode[code] = team.getKey();
+                    }
+                    teamNamesByCode[code] = team.getValue();
+                }
+                teamIdsByCode = Arrays.copyOf(teamIdsByCode, teamCount);
+                teamNamesByCode = Arrays.copyOf(teamNamesByCode, teamCount);
+            }
+
+            // rows 는 member_id 순
+            private Patch members(Collection<MemberRow> rows) {
+                int[] positions = new int[rows.size()]; // 기존 스냅샷에서의 자리, 없으면 (-(끼워 넣을 자리) - 1)
+                int newSize = base.size;
+                int i = 0;
+                for (MemberRow row : rows) {
+                    positions[i] = Arrays.binarySearch(base.ids, 0, base.size, row.id);
+                    newSize += (positions[i] >= 0 ? -1 : 0) + (row.removed ? 0 : 1);
+                    i++;
+                }
+
+                size = newSize;
+                ids = new long[newSize];
+                ages = new int[newSize];
+                teamCodes = new int[newSize];
+                nameCodes = new int[newSize];
+                oldToNew = new int[base.size];
+                long[] changedKeys = new long[rows.size()]; // 바뀐 row 의 (age, row)
+                int changedCount = 0;
+
+                i = 0;
+                for (MemberRow row : rows) {
+                    int position = positions[i++];
+                    copyUnchanged(position >= 0 ? position : -position - 1);
+                    if (position >= 0) {
+                        oldToNew[from++] = -1;
+                    }
+                    if (!row.removed) {
+                        ids[to] = row.id;
+                        ages[to] = row.age;
+                        teamCodes[to] = row.teamId != null ? codeByTeamId.get(row.teamId) : NO_CODE;
+                        nameCodes[to] = row.userName != null ? nameCode(row.userName) : NO_CODE;
+                        changedKeys[changedCount++] = ((long) row.age << 32) | to;
+                        to++;
+                    }
+                }
+                copyUnchanged(base.size);
+
+                changedKeys = Arrays.copyOf(changedKeys, changedCount);
+                Arrays.sort(changedKeys);
+                mergeAgeIndex(changedKeys);
+                return this;
+            }
+
+            // 기존 row [from, end) 를 그대로 옮긴다.
+            private void copyUnchanged(int end) {
+                int length = end - from;
+                System.arraycopy(base.ids, from, ids, to, length);
+                System.arraycopy(base.ages, from, ages, to, length);
+                System.arraycopy(base.teamCodes, from, teamCodes, to, length);
+                System.arraycopy(base.nameCodes, from, nameCodes, to, length);
+                for (int k = 0; k < length; k++) {
+                    oldToNew[from + k] = to + k;
+                }
+                from = end;
+                to += length;
+            }
+
+            // 기존 인덱스는 (age, row) 순이고 번호를 바꿔도 순서가 그대로이므로 정렬된 두 목록의 병합이다.
+            private void mergeAgeIndex(long[] changedKeys) {
+                rowsByAge = new int[size];
+                int n = 0;
+                int c = 0;
+                for (int oldRow : base.rowsByAge) {
+                    int row = oldToNew[oldRow];
+                    if (row < 0) {
+                        continue;
+                    }
+                    long key = ((long) ages[row] << 32) | row;
+                    while (c < changedKeys.length && changedKeys[c] < key) {
+                        rowsByAge[n++] = (int) changedKeys[c++];
+                    }
+                    rowsByAge[n++] = row;
+                }
+                while (c < changedKeys.length) {
+                    rowsByAge[n++] = (int) changedKeys[c++];
+                }
+            }
+
+            private int nameCode(String userName) {
+                Integer code = codeByName.get(userName);
+                if (code != null) {
+                    return code;
+                }
+                if (addedNames == null) {
+                    addedNames = new ArrayList<>();
+                    codeByName = new HashMap<>(codeByName);
+                }
+                code = base.names.length + addedNames.size();
+                addedNames.add(userName);
+                codeByName.put(userName, code);
+                return code;
+            }
+
+            private Columns build() {
+                if (addedNames != null) {
+                    names = Arrays.copyOf(base.names, base.names.length + addedNames.size());
+                    for (int k = 0; k < addedNames.size(); k++) {
+                        names[base.names.length + k] = addedNames.get(k);
+                    }
+                }
+                return new Columns(this);
+            }
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.querydsl.entity.repository;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+/**
+ * Member / Team 엔티티가 저장/수정/삭제되면 인메모리 읽기 모델에 알린다. 커밋될 때 바뀐 row 만 반영된다. (팀 이름도 응답에 들어가므로 Team 도 본다.)
+ * MemberColumnStore 도 EntityManager 가 필요하므로 TeamIdDictionaryListener 처럼 이벤트 때 꺼내 쓴다.
+ */
+@Component
+public class MemberColumnStoreListener {
+
+    private final ObjectProvider<MemberColumnStore> columnStore;
+
+    public MemberColumnStoreListener(ObjectProvider<MemberColumnStore> columnStore) {
+        this.columnStore = columnStore;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void changed(Object entity) {
+        columnStore.getObject().changed(entity);
+    }
+
+    @PostRemove
+    public void removed(Object entity) {
+        columnStore.getObject().removed(entity);
+    }
+}
@@ -0,0 +1,205 @@
+package com.example.querydsl.entity.repository;
+
+import com.example.querydsl.controller.dto.MemberSearchCondition;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import static org.springframework.util.StringUtils.hasText;
+
+/**
+ * 검색 조건별 전체 카운트 캐시. 같은 조건으로 페이지를 왔다 갔다 할 때 카운트 쿼리를 다시 날리지 않게 한다.
+ * <p>
+ * 최대 크기를 넘으면 가장 오래 안 쓴 것부터 버리고(LRU), ttl 이 지나면 만료된다.
+ * member / team 테이블이 바뀌면 (저장, 엔티티 이벤트, 벌크 update/delete) 전부 비운다. (키의 teamName 이 가리키는 팀이 바뀔 수 있다.) -> MemberCountCacheListener, MemberTableStatementInspector
+ * <p>
+ * 메트릭 -> member.count-cache.hits / misses / evictions / invalidations (카운터), member.count-cache.size (게이지)
+ */
+@Component
+public class MemberCountCache {
+
+    private final boolean enabled;
+    private final long ttlMillis;
+    private final Map<Key, Entry> entries;
+
+    private final AtomicLong generation = new AtomicLong(); // 비울 때마다 증가 -> 비우기 전에 시작한 카운트가 뒤늦게 들어오는 것을 막는다.
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+    private final AtomicLong invalidationCount = new AtomicLong();
+
+    public MemberCountCache(MeterRegistry registry,
+                            @Value("${querydsl.page.count-cache.enabled:true}") boolean enabled,
+                            @Value("${querydsl.page.count-cache.max-size:1000}") int maxSize,
+                            @Value("${querydsl.page.count-cache.ttl-millis:30000}") long ttlMillis) {
+        this.enabled = enabled;
+        this.ttlMillis = ttlMillis;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                boolean evict = size() > maxSize;
+                if (evict) {
+                    evictionCount.incrementAndGet();
+                }
+                return evict;
+            }
+        };
+        FunctionCounter.builder("member.count-cache.hits", hitCount, AtomicLong::get).register(registry);
+        FunctionCounter.builder("member.count-cache.misses", missCount, AtomicLong::get).register(registry);
+        FunctionCounter.builder("member.count-cache.evictions", evictionCount, AtomicLong::get).register(registry);
+        FunctionCounter.builder("member.count-cache.invalidations", invalidationCount, AtomicLong::get).register(registry);
+        Gauge.builder("member.count-cache.size", this, MemberCountCache::size).register(registry);
+    }
+
+    /**
+     * 캐시에 있으면 그 값을, 없으면 count 를 실행해서 저장하고 돌려준다.
+     * 쓰기 트랜잭션 안에서 센 값은 커밋 안 된 로우가 섞여 있을 수 있으므로 저장하지 않는다.
+     */
+    public long get(MemberSearchCondition condition, LongSupplier count) {
+        if (!enabled) {
+            return count.getAsLong();
+        }
+
+        Key key = Key.of(condition);
+        long startGeneration = generation.get();
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null && !entry.isExpired()) {
+                hitCount.incrementAndGet();
+                return entry.total;
+            }
+            if (entry != null) {
+                entries.remove(key);
+                evictionCount.incrementAndGet();
+            }
+        }
+        missCount.incrementAndGet();
+
+        long total = count.getAsLong();
+        if (!isInWriteTransaction()) {
+            synchronized (entries) {
+                if (generation.get() == startGeneration) {
+                    entries.put(key, new Entry(total, System.currentTimeMillis() + ttlMillis));
+                }
+            }
+        }
+        return total;
+    }
+
+    public void invalidateAll() {
+        synchronized (entries) {
+            generation.incrementAndGet();
+            entries.clear();
+        }
+        invalidationCount.incrementAndGet();
+    }
+
+    /**
+     * 지금 비우고, 트랜잭션이 있으면 끝날 때(커밋/롤백) 한 번 더 비운다.
+     * 트랜잭션 도중 다른 요청이 커밋 전 상태로 다시 채워 넣은 값을 정리하기 위함.
+     */
+    public void invalidateAllAfterCompletion() {
+        invalidateAll();
+        // 대량 insert 시 로우마다 등록되지 않도록 트랜잭션당 한 번만 등록
+        if (TransactionSynchronizationManager.isSynchronizationActive()
+                && !TransactionSynchronizationManager.hasResource(this)) {
+            TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(MemberCountCache.this);
+                    invalidateAll();
+                }
+            });
+        }
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    public long getInvalidationCount() {
+        return invalidationCount.get();
+    }
+
+    public double getHitRatio() {
+        long hits = hitCount.get();
+        long total = hits + missCount.get();
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private static boolean isInWriteTransaction() {
+        return TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    /**
+     * 검색 조건을 정규화한 캐시 키. 공백/빈 문자열은 조건 없음(null)과 같게 취급한다. (hasText 로 조건을 거는 것과 동일)
+     */
+    @Getter
+    @ToString
+    @EqualsAndHashCode
+    public static class Key {
+
+        private final String userName;
+        private final String teamName;
+        private final Integer ageGoe;
+        private final Integer ageLoe;
+
+        private Key(String userName, String teamName, Integer ageGoe, Integer ageLoe) {
+            this.userName = userName;
+            this.teamName = teamName;
+            this.ageGoe = ageGoe;
+            this.ageLoe = ageLoe;
+        }
+
+        public static Key of(MemberSearchCondition condition) {
+            return new Key(
+                    hasText(condition.getUserName()) ? condition.getUserName() : null,
+                    hasText(condition.getTeamName()) ? condition.getTeamName() : null,
+                    condition.getAgeGoe(),
+                    condition.getAgeLoe());
+        }
+    }
+
+    private static class Entry {
+
+        private final long total;
+        private final long expiresAt;
+
+        private Entry(long total, long expiresAt) {
+            this.total = total;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired() {
+            return System.currentTimeMillis() >= expiresAt;
+        }
+    }
+}
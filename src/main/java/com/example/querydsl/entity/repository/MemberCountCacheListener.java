@@ -0,0 +1,28 @@
+package com.example.querydsl.entity.repository;
+
+import org.springframework.stereotype.Component;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+/**
+ * Member / Team 엔티티가 저장/수정/삭제되면 카운트 캐시를 비운다. (캐시 키가 팀 이름이므로 Team 도 본다.)
+ * 스프링 부트가 하이버네이트에 SpringBeanContainer 를 넣어주기 때문에 엔티티 리스너도 스프링 빈으로 주입받을 수 있다.
+ */
+@Component
+public class MemberCountCacheListener {
+
+    private final MemberCountCache countCache;
+
+    public MemberCountCacheListener(MemberCountCache countCache) {
+        this.countCache = countCache;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void invalidate(Object entity) {
+        countCache.invalidateAllAfterCompletion();
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.querydsl.entity.repository;
+
+import com.example.querydsl.controller.dto.MemberSearchCondition;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+
+import static org.springframework.util.StringUtils.hasText;
+
+/**
+ * 조건이 없거나 느슨해서 결과가 아주 많은 검색은 정확한 count(member) 가 페이지 조회보다 비싸다.
+ * 이럴 때는 DB 통계(information_schema)의 테이블 로우 추정치에 조건별 선택도를 곱해서 전체 건수를 추정한다.
+ * <ul>
+ *     <li>member/team 로우 수 -> H2: ROW_COUNT_ESTIMATE, MySQL: TABLE_ROWS</li>
+ *     <li>teamName 선택도 -> 1 / 팀 수 (팀별로 고르게 있다고 가정)</li>
+ *     <li>age 범위 선택도 -> 범위 길이 / (max(age) - min(age) + 1) (고르게 분포한다고 가정)</li>
+ *     <li>userName 은 거의 유일하므로 추정하지 않고 정확히 센다.</li>
+ * </ul>
+ * 추정치가 threshold 보다 작으면 정확히 세는 게 싸므로 추정하지 않는다. (OptionalLong.empty())
+ */
+@Slf4j
+@Component
+public class MemberCountEstimator {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long threshold;
+    private final long statsTtlMillis;
+
+    private volatile Stats stats;
+
+    public MemberCountEstimator(JdbcTemplate jdbcTemplate,
+                                @Value("${querydsl.page.estimated-count.threshold:100000}") long threshold,
+                                @Value("${querydsl.page.estimated-count.stats-ttl-millis:60000}") long statsTtlMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.threshold = threshold;
+        this.statsTtlMillis = statsTtlMillis;
+    }
+
+    public OptionalLong estimate(MemberSearchCondition condition) {
+        if (hasText(condition.getUserName())) {
+            return OptionalLong.empty();
+        }
+
+        Stats current = stats();
+        if (current == null || current.memberRows < threshold) { // 작은 테이블은 그냥 센다.
+            return OptionalLong.empty();
+        }
+
+        double selectivity = 1.0;
+        if (hasText(condition.getTeamName())) {
+            selectivity /= Math.max(1, current.teamRows);
+        }
+        if (condition.getAgeGoe() != null || condition.getAgeLoe() != null) {
+            selectivity *= ageSelectivity(current, condition.getAgeGoe(), condition.getAgeLoe());
+        }
+
+        long estimate = Math.round(current.memberRows * selectivity);
+        return estimate >= threshold ? OptionalLong.of(estimate) : OptionalLong.empty();
+    }
+
+    private static double ageSelectivity(Stats stats, Integer ageGoe, Integer ageLoe) {
+        int from = ageGoe != null ? Math.max(ageGoe, stats.minAge) : stats.minAge;
+        int to = ageLoe != null ? Math.min(ageLoe, stats.maxAge) : stats.maxAge;
+        if (from > to) {
+            return 0.0;
+        }
+        return (double) (to - from + 1) / (stats.maxAge - stats.minAge + 1);
+    }
+
+    private Stats stats() {
+        Stats current = stats;
+        if (current != null && !current.isExpired(statsTtlMillis)) {
+            return current;
+        }
+        try {
+            stats = current = loadStats();
+        } catch (DataAccessException e) { // 통계를 못 읽으면 정확히 센다.
+            log.warn("failed to read table statistics, falling back to exact count", e);
+            return null;
+        }
+        return current;
+    }
+
+    private Stats loadStats() {
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) con -> con.getMetaData().getDatabaseProductName());
+        Long memberRows = tableRows(product, "member");
+        Long teamRows = tableRows(product, "team");
+        if (memberRows == null || teamRows == null) {
+            return Stats.none(); // 통계를 지원하지 않는 DB
+        }
+
+        Map<String, Object> ageRange = jdbcTemplate.queryForMap("select min(age) as min_age, max(age) as max_age from member");
+        Number minAge = (Number) ageRange.get("min_age");
+        Number maxAge = (Number) ageRange.get("max_age");
+        if (minAge == null || maxAge == null) {
+            return Stats.none(); // 빈 테이블
+        }
+        return new Stats(memberRows, teamRows, minAge.intValue(), maxAge.intValue());
+    }
+
+    private Long tableRows(String product, String table) {
+        List<Long> rows;
+        if ("H2".equalsIgnoreCase(product)) {
+            rows = jdbcTemplate.queryForList(
+                    "select row_count_estimate from information_schema.tables where table_name = ?",
+                    Long.class, table.toUpperCase());
+        } else if ("MySQL".equalsIgnoreCase(product)) {
+            rows = jdbcTemplate.queryForList(
+                    "select table_rows from information_schema.tables where table_schema = database() and table_name = ?",
+                    Long.class, table);
+        } else {
+            return null;
+        }
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    private static class Stats {
+
+        private final long memberRows;
+        private final long teamRows;
+        private final int minAge;
+        private final int maxAge;
+        private final long loadedAt = System.currentTimeMillis();
+
+        private Stats(long memberRows, long teamRows, int minAge, int maxAge) {
+            this.memberRows = memberRows;
+            this.teamRows = teamRows;
+            this.minAge = minAge;
+            this.maxAge = maxAge;
+        }
+
+        private static Stats none() { // 추정 안 함 (memberRows < threshold), ttl 동안은 다시 안 읽는다.
+            return new Stats(0, 0, 0, 0);
+        }
+
+        private boolean isExpired(long ttlMillis) {
+            return System.currentTimeMillis() - loadedAt > ttlMillis;
+        }
+    }
+}
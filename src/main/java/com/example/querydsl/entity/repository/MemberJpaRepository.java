@@ -7,20 +7,26 @@ import com.example.querydsl.controller.dto.QMemberTeamDto;
 import com.example.querydsl.entity.Member;
 import com.example.querydsl.entity.QMember;
 import com.example.querydsl.entity.QTeam;
+import com.example.querydsl.entity.repository.TeamIdDictionary.TeamIds;
 import com.querydsl.core.BooleanBuilder;
 import com.querydsl.core.types.Predicate;
 import com.querydsl.core.types.dsl.BooleanExpression;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.annotations.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import static com.example.querydsl.entity.QMember.member;
+import static com.example.querydsl.entity.repository.MemberSearchPredicates.ageRange;
 import static com.example.querydsl.entity.QTeam.team;
 import static org.springframework.util.StringUtils.*;
 
@@ -33,34 +39,42 @@ public class MemberJpaRepository {
     // @Bean 으로 등록해서 사용하면 롬복의 @RequiredArgumentConstructor 사용 가능
     private final JPAQueryFactory queryFactory;
 
-    public MemberJpaRepository(EntityManager em) {
+    private final TeamIdDictionary teamIdDictionary;
+
+    public MemberJpaRepository(EntityManager em, TeamIdDictionary teamIdDictionary) {
         this.em = em;
         this.queryFactory = new JPAQueryFactory(em);
+        this.teamIdDictionary = teamIdDictionary;
     }
 
     public void save(Member member) {
         em.persist(member);
     }
 
+    @Transactional(readOnly = true)
     public Optional<Member> findById(Long id) {
         Member findMember = em.find(Member.class, id);
         return Optional.ofNullable(findMember);
     }
 
+    @Transactional(readOnly = true)
     public List<Member> findAll() {
         return em.createQuery("select m from Member m", Member.class).getResultList();
     }
 
+    @Transactional(readOnly = true)
     public List<Member> findByUserName(String userName) {
         return em.createQuery("select m from Member m where m.userName = :userName", Member.class)
                 .setParameter("userName", userName)
                 .getResultList();
     }
 
+    @Transactional(readOnly = true)
     public List<Member> findAllQuerydsl() {
         return queryFactory.selectFrom(member).fetch();
     }
 
+    @Transactional(readOnly = true)
     public List<Member> findByUserNameQuerydsl(String userName) {
         return queryFactory
                 .selectFrom(member)
@@ -69,23 +83,21 @@ public class MemberJpaRepository {
     }
 
 
+    @Transactional(readOnly = true)
     public List<MemberTeamDto> searchByBuilder(MemberSearchCondition condition) {
+        TeamIds teamIds = teamIdDictionary.resolve(condition.getTeamName());
+        if (teamIds.isUnknown()) { // 없는 팀 이름 -> 쿼리 없이 빈 결과
+            return List.of();
+        }
 
         BooleanBuilder builder = new BooleanBuilder();
         if (hasText(condition.getUserName())) {
             builder.and(member.userName.eq(condition.getUserName()));
         }
 
-        if (hasText(condition.getTeamName())) {
-            builder.and(team.name.eq(condition.getTeamName()));
-        }
+        builder.and(teamIds.predicate()); // team.name 대신 member.team_id 로 거른다.
 
-        if (condition.getAgeGoe() != null) {
-            builder.and(member.age.goe(condition.getAgeGoe()));
-        }
-        if (condition.getAgeLoe() != null) {
-            builder.and(member.age.loe(condition.getAgeLoe()));
-        }
+        builder.and(ageRange(condition.getAgeGoe(), condition.getAgeLoe()));
 
         return queryFactory
                 .select(new QMemberTeamDto(
@@ -101,7 +113,13 @@ public class MemberJpaRepository {
                 .fetch();
     }
 
+    @Transactional(readOnly = true)
     public List<MemberTeamDto> search(MemberSearchCondition condition) {
+        TeamIds teamIds = teamIdDictionary.resolve(condition.getTeamName());
+        if (teamIds.isUnknown()) {
+            return List.of();
+        }
+
         return queryFactory
                 .select(new QMemberTeamDto(
                         member.id.as("memberId"),
@@ -111,24 +129,72 @@ public class MemberJpaRepository {
                         team.name.as("teamName")
                 ))
                 .from(member)
-                .leftJoin(member.team, team)
+                .leftJoin(member.team, team) // 팀 컬럼 조회용
                 .where( // 메서드가 재사용 되는게 정말 큰 장점.
                         userNameEq(condition.getUserName()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
+                        teamIds.predicate(),
+                        ageRange(condition.getAgeGoe(), condition.getAgeLoe())
                         )
                 .fetch();
     }
 
+    /*
+    * search 와 같은 조건/프로젝션을 리스트로 모으지 않고 한 건씩 consumer 로 넘긴다. (JPAQuery.stream() -> forward-only 커서)
+    * 스트림은 트랜잭션(커넥션)이 살아 있는 동안만 읽을 수 있으므로 consumer 까지 이 메서드 안에서 다 처리하고 닫는다.
+    * fetchSize 만큼씩 드라이버가 가져오므로 결과가 아무리 커도 힙 사용량은 일정하다. (MySQL 은 useCursorFetch=true 필요)
+    * */
+    @Transactional(readOnly = true)
+    public void searchStream(MemberSearchCondition condition, int fetchSize, Consumer<MemberTeamDto> consumer) {
+        TeamIds teamIds = teamIdDictionary.resolve(condition.getTeamName());
+        if (teamIds.isUnknown()) {
+            return;
+        }
+
+        try (Stream<MemberTeamDto> stream = queryFactory
+                .select(new QMemberTeamDto(
+                        member.id.as("memberId"),
+                        member.userName,
+                        member.age,
+                        team.id.as("teamId"),
+                        team.name.as("teamName")
+                ))
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(
+                        userNameEq(condition.getUserName()),
+                        teamIds.predicate(),
+                        ageRange(condition.getAgeGoe(), condition.getAgeLoe())
+                )
+                .setHint(QueryHints.FETCH_SIZE, fetchSize)
+                .setHint(QueryHints.READ_ONLY, true)
+                .stream()) {
+            stream.forEach(consumer);
+        }
+    }
+
+    // search 와 같은 결과 -> 조건 조합별로 미리 만들어 둔 JPQL 을 바로 실행 (MemberSearchTemplate)
+    @Transactional(readOnly = true)
+    public List<MemberTeamDto> searchByTemplate(MemberSearchCondition condition) {
+        TeamIds teamIds = teamIdDictionary.resolve(condition.getTeamName());
+        if (teamIds.isUnknown()) {
+            return List.of();
+        }
+        return MemberSearchTemplate.dtoQuery(em, condition, teamIds).getResultList();
+    }
+
+    @Transactional(readOnly = true)
     public List<Member> searchMember(MemberSearchCondition condition) { // 재사용 예제
+        TeamIds teamIds = teamIdDictionary.resolve(condition.getTeamName());
+        if (teamIds.isUnknown()) {
+            return List.of();
+        }
+
         return queryFactory
-                .selectFrom(member)
-                .leftJoin(member.team, team)
+                .selectFrom(member) // 팀 컬럼을 조회하지 않으므로 team 조인도 필요 없다.
                 .where( // 메서드가 재사용 되는게 정말 큰 장점.
                         userNameEq(condition.getUserName()),
-                        teamNameEq(condition.getTeamName()),
-                        ageBetween(condition.getAgeGoe(), condition.getAgeLoe()) // 이런식으로 메서드들을 묶어서 사용 가능 -> 4개를 다 묶어서 condition만 사용하는것도 물론 가능하다.-> null check만 유의하자.
+                        teamIds.predicate(),
+                        ageRange(condition.getAgeGoe(), condition.getAgeLoe()) // 이런식으로 메서드들을 묶어서 사용 가능 -> 4개를 다 묶어서 condition만 사용하는것도 물론 가능하다.-> null check만 유의하자.
                 )
                 .fetch();
     }
@@ -142,10 +208,6 @@ public class MemberJpaRepository {
         return hasText(userName) ? member.userName.eq(userName) : null;
     }
 
-    private BooleanExpression teamNameEq(String teamName) {
-        return hasText(teamName) ? team.name.eq(teamName) : null;
-    }
-
     private BooleanExpression ageGoe(Integer ageGoe) {
         return ageGoe != null ? member.age.goe(ageGoe) : null;
     }
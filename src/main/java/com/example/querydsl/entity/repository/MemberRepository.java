@@ -3,11 +3,13 @@ package com.example.querydsl.entity.repository;
 import com.example.querydsl.entity.Member;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.querydsl.QuerydslPredicateExecutor;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
 
 public interface MemberRepository extends JpaRepository<Member, Long>, MemberRepositoryCustom, QuerydslPredicateExecutor<Member> { // SpringDataJpa로 Querydsl 만들기
 
+    @Transactional(readOnly = true) // 쿼리 메서드는 SimpleJpaRepository 의 readOnly 설정을 물려받지 않는다.
     List<Member> findByUserName(String userName);
 }
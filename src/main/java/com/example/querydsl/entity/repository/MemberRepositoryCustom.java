@@ -1,20 +1,42 @@
 package com.example.querydsl.entity.repository;
 
+import com.example.querydsl.controller.dto.EstimatedPage;
+import com.example.querydsl.controller.dto.FacetedPage;
+import com.example.querydsl.controller.dto.MemberCursor;
+import com.example.querydsl.controller.dto.MemberCursorPage;
 import com.example.querydsl.controller.dto.MemberSearchCondition;
 import com.example.querydsl.controller.dto.MemberTeamDto;
+import com.example.querydsl.controller.dto.MemberTeamField;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public interface MemberRepositoryCustom {
 
     List<MemberTeamDto> search(MemberSearchCondition condition);
 
+    List<MemberTeamDto> searchByTemplate(MemberSearchCondition condition);
+
     Page<MemberTeamDto> searchPageSimple(MemberSearchCondition condition, Pageable pageable);
 
     Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable);
 
+    EstimatedPage<MemberTeamDto> searchPageEstimated(MemberSearchCondition condition, Pageable pageable, boolean exactCount);
+
+    FacetedPage<MemberTeamDto> searchPageWithFacets(MemberSearchCondition condition, Pageable pageable, int ageBucketSize);
+
+    Slice<MemberTeamDto> searchSlice(MemberSearchCondition condition, Pageable pageable);
+
+    MemberCursorPage searchByCursor(MemberSearchCondition condition, MemberCursor cursor, int size);
+
+    List<Map<String, Object>> searchFields(MemberSearchCondition condition, Set<MemberTeamField> fields);
+
+    Page<Map<String, Object>> searchPageFields(MemberSearchCondition condition, Set<MemberTeamField> fields, Pageable pageable);
+
 
 
 }
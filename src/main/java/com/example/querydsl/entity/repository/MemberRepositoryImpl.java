@@ -1,42 +1,102 @@
 package com.example.querydsl.entity.repository;
 
+import com.example.querydsl.controller.dto.EstimatedPage;
+import com.example.querydsl.controller.dto.FacetedPage;
+import com.example.querydsl.controller.dto.MemberFacets;
+import com.example.querydsl.controller.dto.MemberCursor;
+import com.example.querydsl.controller.dto.MemberCursorPage;
+import com.example.querydsl.controller.dto.MemberCursorSort;
 import com.example.querydsl.controller.dto.MemberSearchCondition;
 import com.example.querydsl.controller.dto.MemberTeamDto;
+import com.example.querydsl.controller.dto.MemberTeamField;
 import com.example.querydsl.controller.dto.QMemberTeamDto;
 import com.example.querydsl.entity.Member;
+import com.example.querydsl.entity.repository.TeamIdDictionary.TeamIds;
+import com.example.querydsl.entity.repository.support.CountQueryBuilder;
+import com.example.querydsl.entity.repository.support.ParallelPageExecutor;
 import com.querydsl.core.QueryResults;
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.Order;
+import com.querydsl.core.types.OrderSpecifier;
 import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.PathBuilder;
 import com.querydsl.jpa.JPQLQuery;
 import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.support.Querydsl;
 import org.springframework.data.jpa.repository.support.QuerydslRepositorySupport;
 import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.transaction.annotation.Transactional;
 
 import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.TreeMap;
 
 import static com.example.querydsl.entity.QMember.member;
+import static com.example.querydsl.entity.repository.MemberSearchPredicates.ageRange;
 import static com.example.querydsl.entity.QTeam.team;
 import static org.springframework.util.StringUtils.hasText;
 
+// 조회 전용 -> 라우팅이 켜져 있으면 레플리카로 간다. 쓰기 트랜잭션 안에서 부르면 그 트랜잭션(프라이머리)에 합류
+@Transactional(readOnly = true)
 public class MemberRepositoryImpl extends QuerydslRepositorySupport implements MemberRepositoryCustom{
 
     private final JPAQueryFactory queryFactory;
+
+    // Pageable 정렬을 QMember.member 별칭(member1)으로 푼다. getQuerydsl() 은 별칭이 member 라서 쿼리와 안 맞는다.
+    private final Querydsl memberQuerydsl;
+
+    private final ParallelPageExecutor pageExecutor;
+
+    private final MemberCountCache countCache;
+
+    private final MemberCountEstimator countEstimator;
+
+    private final TeamIdDictionary teamIdDictionary;
+
+    private final MemberColumnStore columnStore;
 //
 //    public MemberRepositoryImpl(EntityManager em) {
 //        this.queryFactory = new JPAQueryFactory(em);
 //    }
 
-    public MemberRepositoryImpl(EntityManager em) {
+    public MemberRepositoryImpl(EntityManager em, ParallelPageExecutor pageExecutor, MemberCountCache countCache,
+                                MemberCountEstimator countEstimator, TeamIdDictionary teamIdDictionary,
+                                MemberColumnStore columnStore) {
         super(Member.class);
         this.queryFactory = new JPAQueryFactory(em);
+        this.memberQuerydsl = new Querydsl(em, new PathBuilder<>(Member.class, member.getMetadata()));
+        this.pageExecutor = pageExecutor;
+        this.countCache = countCache;
+        this.countEstimator = countEstimator;
+        this.teamIdDictionary = teamIdDictionary;
+        this.columnStore = columnStore;
     }
 
     @Override
     public List<MemberTeamDto> search(MemberSearchCondition condition) {
+        // teamName 은 team_id 로 바꿔서 거른다. 사전에 없는 팀 이름이면 쿼리 없이 빈 결과 (TeamIdDictionary, 쓰기 트랜잭션 안에서는 팀만 조회)
+        TeamIds teamIds = teamIdDictionary.resolve(condition.getTeamName());
+        if (teamIds.isUnknown()) {
+            return List.of();
+        }
+        if (columnStore.isServing()) { // 인메모리 읽기 모델이 켜져 있으면 DB 를 안 거친다.
+            return columnStore.search(condition, teamIds);
+        }
+
 
         /*
         * QuerydslRepositorySupport -> 3쿼리 팩토리가 나오기 전 3버전에서 사용하던 방법 페이징이 편리함 단, 정렬은 안됨.
@@ -45,9 +105,8 @@ public class MemberRepositoryImpl extends QuerydslRepositorySupport implements M
                 .leftJoin(member.team, team)
                 .where(
                         userNameEq(condition.getUserName()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
+                        teamIds.predicate(),
+                        ageRange(condition.getAgeGoe(), condition.getAgeLoe())
                 ).select(new QMemberTeamDto(
                         member.id.as("memberId"),
                         member.userName,
@@ -78,8 +137,23 @@ public class MemberRepositoryImpl extends QuerydslRepositorySupport implements M
 //                .fetch();
     }
 
+    @Override
+    public List<MemberTeamDto> searchByTemplate(MemberSearchCondition condition) {
+        TeamIds teamIds = teamIdDictionary.resolve(condition.getTeamName());
+        if (teamIds.isUnknown()) {
+            return List.of();
+        }
+
+        return MemberSearchTemplate.dtoQuery(getEntityManager(), condition, teamIds).getResultList();
+    }
+
     @Override
     public Page<MemberTeamDto> searchPageSimple(MemberSearchCondition condition, Pageable pageable) {
+        TeamIds teamIds = teamIdDictionary.resolve(condition.getTeamName());
+        if (teamIds.isUnknown()) {
+            return Page.empty(pageable);
+        }
+
         QueryResults<MemberTeamDto> results = queryFactory
                 .select(new QMemberTeamDto(
                         member.id.as("memberId"),
@@ -92,9 +166,8 @@ public class MemberRepositoryImpl extends QuerydslRepositorySupport implements M
                 .leftJoin(member.team, team)
                 .where( // 메서드가 재사용 되는게 정말 큰 장점.
                         userNameEq(condition.getUserName()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
+                        teamIds.predicate(),
+                        ageRange(condition.getAgeGoe(), condition.getAgeLoe())
                 )
                 .offset(pageable.getOffset())
                 .limit(pageable.getPageSize())
@@ -116,13 +189,17 @@ public class MemberRepositoryImpl extends QuerydslRepositorySupport implements M
     * QuerydslRepositorySupport 페이징 방법
     * */
     public Page<MemberTeamDto> searchPageSimple2(MemberSearchCondition condition, Pageable pageable) {
+        TeamIds teamIds = teamIdDictionary.resolve(condition.getTeamName());
+        if (teamIds.isUnknown()) {
+            return Page.empty(pageable);
+        }
+
         JPQLQuery<MemberTeamDto> jpaQuery = from(member)
                 .leftJoin(member.team, team)
                 .where( // 메서드가 재사용 되는게 정말 큰 장점.
                         userNameEq(condition.getUserName()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
+                        teamIds.predicate(),
+                        ageRange(condition.getAgeGoe(), condition.getAgeLoe())
                 )
                 .select(new QMemberTeamDto(
                         member.id.as("memberId"),
@@ -143,25 +220,7 @@ public class MemberRepositoryImpl extends QuerydslRepositorySupport implements M
 
     @Override
     public Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable) {
-        List<MemberTeamDto> content = queryFactory
-                .select(new QMemberTeamDto(
-                        member.id.as("memberId"),
-                        member.userName,
-                        member.age,
-                        team.id.as("teamId"),
-                        team.name.as("teamName")
-                ))
-                .from(member)
-                .leftJoin(member.team, team)
-                .where( // 메서드가 재사용 되는게 정말 큰 장점.
-                        userNameEq(condition.getUserName()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
-                )
-                .offset(pageable.getOffset())
-                .limit(pageable.getPageSize())
-                .fetch(); // -> 컨텐트를 꺼내는 메소드로 리팩토링 해서 재사용 하는 방법도 있음. 편한거 쓰면 됨
+//        List<MemberTeamDto> content = ... -> searchContent 로 리팩토링
 
 //        long count = queryFactory
 //                .select(member)
@@ -177,56 +236,328 @@ public class MemberRepositoryImpl extends QuerydslRepositorySupport implements M
 
 //        return new PageImpl<>(content, pageable, count);
 
-        // 카운트 쿼리 최적화
+        // 카운트 쿼리 최적화 -> fetch().size() 대신 CountQueryBuilder 로 select count 를 만들어서 실행
+        // 컨텐츠/카운트는 ParallelPageExecutor 설정에 따라 동시에 실행된다. (카운트는 넘겨받은 EntityManager 로 만들어야 함)
+        // 같은 조건의 카운트는 MemberCountCache 에서 꺼낸다.
+        TeamIds teamIds = teamIdDictionary.resolve(condition.getTeamName());
+        if (teamIds.isUnknown()) {
+            return Page.empty(pageable);
+        }
+        if (columnStore.isServing() && pageable.getSort().isUnsorted()) { // 읽기 모델은 member_id 순서로만 돌려준다.
+            return columnStore.searchPage(condition, teamIds, pageable);
+        }
+
+        return searchPage(condition, teamIds, pageable);
+    }
 
-        JPAQuery<Member> countQuery = queryFactory
-                .select(member)
+    private Page<MemberTeamDto> searchPage(MemberSearchCondition condition, TeamIds teamIds, Pageable pageable) {
+        return pageExecutor.getPage(pageable,
+                () -> searchContent(condition, teamIds, pageable),
+                countEm -> countCache.get(condition, () ->
+                        CountQueryBuilder.count(countEm, countQuery(new JPAQueryFactory(countEm), condition, teamIds)).getAsLong()));
+    }
+
+    // Querydsl 5버전으로 수정
+    public Page<MemberTeamDto> searchPageComplex2(MemberSearchCondition condition,
+                                                 Pageable pageable) {
+        TeamIds teamIds = teamIdDictionary.resolve(condition.getTeamName());
+        if (teamIds.isUnknown()) {
+            return Page.empty(pageable);
+        }
+
+        return pageExecutor.getPage(pageable,
+                () -> searchContent(condition, teamIds, pageable),
+                // 팀은 team_id 로 거르므로 CountQueryBuilder 가 team left join 을 빼고 member 만 센다.
+                countEm -> countCache.get(condition, () -> CountQueryBuilder.count(countEm,
+                        countQuery(new JPAQueryFactory(countEm), condition, teamIds).select(member.count())).getAsLong()));
+    }
+
+    /*
+    * 조건이 없거나 느슨해서 결과가 아주 많으면 count 대신 DB 통계로 추정한 전체 건수를 쓴다. (MemberCountEstimator)
+    * exactCount = true 면 항상 정확히 센다.
+    * */
+    @Override
+    public EstimatedPage<MemberTeamDto> searchPageEstimated(MemberSearchCondition condition, Pageable pageable, boolean exactCount) {
+        TeamIds teamIds = teamIdDictionary.resolve(condition.getTeamName());
+        if (teamIds.isUnknown()) {
+            return EstimatedPage.exact(Page.empty(pageable));
+        }
+
+        if (!exactCount) {
+            OptionalLong estimate = countEstimator.estimate(condition);
+            if (estimate.isPresent()) {
+                return EstimatedPage.estimated(searchContent(condition, teamIds, pageable), pageable, estimate.getAsLong());
+            }
+        }
+        return EstimatedPage.exact(searchPage(condition, teamIds, pageable));
+    }
+
+    /*
+    * 페이지 + 나이대별/팀별 건수 -> 예전에는 카운트 쿼리 + 패싯마다 group by 쿼리를 따로 날렸다.
+    * (팀, 나이) 로 한 번만 group by 해서 나이대 버킷, 팀별 건수, 전체 건수를 전부 만든다. -> 쿼리 2번 (패싯 + 컨텐츠)
+    * 나이로 묶는 이유: 버킷 식(age - mod(age, n))으로 group by 하면 DB 마다 파라미터 바인딩이 달라 깨질 수 있다. 나이 종류는 많지 않다.
+    * */
+    @Override
+    public FacetedPage<MemberTeamDto> searchPageWithFacets(MemberSearchCondition condition, Pageable pageable, int ageBucketSize) {
+        if (ageBucketSize <= 0) {
+            throw new IllegalArgumentException("ageBucketSize must be positive: " + ageBucketSize);
+        }
+
+        TeamIds teamIds = teamIdDictionary.resolve(condition.getTeamName());
+        if (teamIds.isUnknown()) {
+            return FacetedPage.empty(pageable);
+        }
+
+        MemberFacets facets = facets(condition, teamIds, ageBucketSize);
+        List<MemberTeamDto> content = pageable.getOffset() < facets.getTotal()
+                ? searchContent(condition, teamIds, pageable)
+                : List.of(); // 범위를 벗어난 페이지는 조회할 필요 없음
+        return new FacetedPage<>(content, pageable, facets);
+    }
+
+    private MemberFacets facets(MemberSearchCondition condition, TeamIds teamIds, int ageBucketSize) {
+        List<Tuple> rows = queryFactory
+                .select(team.id, team.name, member.age, member.count())
                 .from(member)
                 .leftJoin(member.team, team)
                 .where(
                         userNameEq(condition.getUserName()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
+                        teamIds.predicate(),
+                        ageRange(condition.getAgeGoe(), condition.getAgeLoe())
+                )
+                .groupBy(team.id, team.name, member.age)
+                .fetch();
+
+        long total = 0;
+        Map<Integer, Long> buckets = new TreeMap<>();
+        Map<Long, MemberFacets.TeamCount> teams = new LinkedHashMap<>(); // 팀 없음 -> null 키
+        for (Tuple row : rows) {
+            long count = row.get(member.count());
+            int age = row.get(member.age);
+            Long teamId = row.get(team.id);
+
+            total += count;
+            buckets.merge(Math.floorDiv(age, ageBucketSize) * ageBucketSize, count, Long::sum);
+            MemberFacets.TeamCount previous = teams.get(teamId);
+            teams.put(teamId, new MemberFacets.TeamCount(teamId, row.get(team.name),
+                    previous != null ? previous.getCount() + count : count));
+        }
+
+        List<MemberFacets.AgeBucket> ageBuckets = new ArrayList<>(buckets.size());
+        buckets.forEach((from, count) -> ageBuckets.add(new MemberFacets.AgeBucket(from, from + ageBucketSize - 1, count)));
+
+        List<MemberFacets.TeamCount> teamCounts = new ArrayList<>(teams.values());
+        teamCounts.sort(Comparator.comparingLong(MemberFacets.TeamCount::getCount).reversed());
+        return new MemberFacets(total, ageBuckets, teamCounts);
+    }
+
+    /*
+    * 전체 건수가 필요 없는 화면용 -> 카운트 쿼리 없이 size + 1 개를 조회해서 다음 페이지 여부만 판단
+    * */
+    @Override
+    public Slice<MemberTeamDto> searchSlice(MemberSearchCondition condition, Pageable pageable) {
+        TeamIds teamIds = teamIdDictionary.resolve(condition.getTeamName());
+        if (teamIds.isUnknown()) {
+            return new SliceImpl<>(List.of(), pageable, false);
+        }
+
+        List<MemberTeamDto> content = searchContent(condition, teamIds, pageable, pageable.getPageSize() + 1); // 하나 더 읽어서 다음 페이지 여부 판단
+
+        boolean hasNext = content.size() > pageable.getPageSize();
+        if (hasNext) {
+            content = content.subList(0, pageable.getPageSize());
+        }
+        return new SliceImpl<>(content, pageable, hasNext);
+    }
+
+    private List<MemberTeamDto> searchContent(MemberSearchCondition condition, TeamIds teamIds, Pageable pageable) {
+        return searchContent(condition, teamIds, pageable, pageable.getPageSize());
+    }
+
+    // 정렬 -> pageable 의 sort 다음에 항상 member.id (정렬 값이 같은 로우끼리 페이지마다 순서가 바뀌지 않도록)
+    private List<MemberTeamDto> searchContent(MemberSearchCondition condition, TeamIds teamIds, Pageable pageable, int limit) {
+        JPQLQuery<MemberTeamDto> query = queryFactory
+                .select(new QMemberTeamDto(
+                        member.id.as("memberId"),
+                        member.userName,
+                        member.age,
+                        team.id.as("teamId"),
+                        team.name.as("teamName")
+                ))
+                .from(member)
+                .leftJoin(member.team, team)
+                .where( // 메서드가 재사용 되는게 정말 큰 장점.
+                        userNameEq(condition.getUserName()),
+                        teamIds.predicate(),
+                        ageRange(condition.getAgeGoe(), condition.getAgeLoe())
                 );
+        return memberQuerydsl.applySorting(pageable.getSort(), query)
+                .orderBy(member.id.asc())
+                .offset(pageable.getOffset())
+                .limit(limit)
+                .fetch();
+    }
 
-        return PageableExecutionUtils.getPage(content,pageable,countQuery.fetch()::size); // () -> countQuery.fetch().size(),
+    private JPAQuery<Member> countQuery(JPAQueryFactory factory, MemberSearchCondition condition, TeamIds teamIds) {
+        return factory
+                .select(member)
+                .from(member)
+                .where(
+                        userNameEq(condition.getUserName()),
+                        teamIds.predicate(),
+                        ageRange(condition.getAgeGoe(), condition.getAgeLoe())
+                );
     }
 
-    // Querydsl 5버전으로 수정
-    public Page<MemberTeamDto> searchPageComplex2(MemberSearchCondition condition,
-                                                 Pageable pageable) {
+    /*
+    * 커서(keyset) 페이징 -> offset 없이 마지막 (정렬 키, member_id) 이후만 조회하므로 몇 페이지를 넘어가도 앞 로우를 버리지 않는다.
+    * size + 1 개를 가져와서 다음 페이지 존재 여부를 판단한다. size 는 1 이상, MemberCursor.MAX_SIZE 를 넘으면 MAX_SIZE 로 줄인다.
+    * */
+    @Override
+    public MemberCursorPage searchByCursor(MemberSearchCondition condition, MemberCursor cursor, int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("size must be positive: " + size);
+        }
+        size = Math.min(size, MemberCursor.MAX_SIZE); // size + 1 이 넘치지 않게
+
+        TeamIds teamIds = teamIdDictionary.resolve(condition.getTeamName());
+        if (teamIds.isUnknown()) {
+            return new MemberCursorPage(List.of(), null);
+        }
+
         List<MemberTeamDto> content = queryFactory
                 .select(new QMemberTeamDto(
                         member.id.as("memberId"),
                         member.userName,
                         member.age,
                         team.id.as("teamId"),
-                        team.name.as("teamName")))
+                        team.name.as("teamName")
+                ))
                 .from(member)
                 .leftJoin(member.team, team)
                 .where(
                         userNameEq(condition.getUserName()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
+                        teamIds.predicate(),
+                        ageRange(condition.getAgeGoe(), condition.getAgeLoe()),
+                        cursorAfter(cursor)
                 )
-                .offset(pageable.getOffset())
-                .limit(pageable.getPageSize())
+                .orderBy(cursorOrder(cursor))
+                .limit(size + 1)
                 .fetch();
 
-        JPAQuery<Long> countQuery = queryFactory
-                .select(member.count())
-                .from(member)
-                .leftJoin(member.team, team)
-                .where(userNameEq(condition.getUserName()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
-                );
+        if (content.size() <= size) {
+            return new MemberCursorPage(content, null);
+        }
 
-        return PageableExecutionUtils.getPage(content, pageable,
-                countQuery::fetchOne);
+        content = content.subList(0, size);
+        return new MemberCursorPage(content, MemberCursor.next(cursor, content.get(size - 1)).encode());
+    }
+
+    /*
+    * 요청한 컬럼만 조회 -> 고른 컬럼만 select 하고, teamName 이 없으면 team 조인도 하지 않는다.
+    * 결과는 고른 컬럼만 담은 map (응답에도 고른 컬럼만 나간다.)
+    * */
+    @Override
+    public List<Map<String, Object>> searchFields(MemberSearchCondition condition, Set<MemberTeamField> fields) {
+        TeamIds teamIds = teamIdDictionary.resolve(condition.getTeamName());
+        if (teamIds.isUnknown()) {
+            return List.of();
+        }
+
+        return toMaps(fieldsQuery(condition, teamIds, fields, Sort.unsorted()).fetch(), fields);
+    }
+
+    @Override
+    public Page<Map<String, Object>> searchPageFields(MemberSearchCondition condition, Set<MemberTeamField> fields, Pageable pageable) {
+        TeamIds teamIds = teamIdDictionary.resolve(condition.getTeamName());
+        if (teamIds.isUnknown()) {
+            return Page.empty(pageable);
+        }
+
+        return pageExecutor.getPage(pageable,
+                () -> toMaps(memberQuerydsl.applySorting(pageable.getSort(), fieldsQuery(condition, teamIds, fields, pageable.getSort()))
+                        .orderBy(member.id.asc()) // tiebreaker
+                        .offset(pageable.getOffset())
+                        .limit(pageable.getPageSize())
+                        .fetch(), fields),
+                countEm -> countCache.get(condition, () ->
+                        CountQueryBuilder.count(countEm, countQuery(new JPAQueryFactory(countEm), condition, teamIds)).getAsLong()));
+    }
+
+    // team 조인 -> team 컬럼을 고르거나 team 컬럼으로 정렬할 때만 (team.id 는 member 의 FK)
+    private JPAQuery<Tuple> fieldsQuery(MemberSearchCondition condition, TeamIds teamIds, Set<MemberTeamField> fields, Sort sort) {
+        JPAQuery<Tuple> query = queryFactory
+                .select(fields.stream().map(this::expressionOf).toArray(Expression<?>[]::new))
+                .from(member);
+        if (MemberTeamField.needsTeamJoin(fields) || sortsByTeamColumn(sort)) {
+            query.leftJoin(member.team, team);
+        }
+        return query.where(
+                userNameEq(condition.getUserName()),
+                teamIds.predicate(),
+                ageRange(condition.getAgeGoe(), condition.getAgeLoe())
+        );
+    }
+
+    private static boolean sortsByTeamColumn(Sort sort) {
+        return sort.stream()
+                .map(Sort.Order::getProperty)
+                .anyMatch(property -> property.startsWith("team.") && !property.equals("team.id"));
+    }
+
+    private Expression<?> expressionOf(MemberTeamField field) {
+        switch (field) {
+            case MEMBER_ID:
+                return member.id;
+            case USER_NAME:
+                return member.userName;
+            case AGE:
+                return member.age;
+            case TEAM_ID:
+                return member.team.id; // FK 컬럼 -> 조인 없음
+            case TEAM_NAME:
+                return team.name;
+            default:
+                throw new IllegalArgumentException("unknown field: " + field);
+        }
+    }
+
+    private List<Map<String, Object>> toMaps(List<Tuple> tuples, Set<MemberTeamField> fields) {
+        List<Map<String, Object>> rows = new ArrayList<>(tuples.size());
+        for (Tuple tuple : tuples) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (MemberTeamField field : fields) {
+                row.put(field.getProperty(), tuple.get(expressionOf(field)));
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private BooleanExpression cursorAfter(MemberCursor cursor) {
+        if (cursor.isFirst()) {
+            return null;
+        }
+
+        boolean asc = cursor.getDirection().isAscending();
+        Long lastId = cursor.getMemberId();
+        BooleanExpression idAfter = asc ? member.id.gt(lastId) : member.id.lt(lastId);
+
+        if (cursor.getSort() == MemberCursorSort.ID) {
+            return idAfter;
+        }
+
+        int lastAge = cursor.getSortValue().intValue();
+        return (asc ? member.age.gt(lastAge) : member.age.lt(lastAge))
+                .or(member.age.eq(lastAge).and(idAfter));
+    }
+
+    private OrderSpecifier<?>[] cursorOrder(MemberCursor cursor) {
+        Order order = cursor.getDirection().isAscending() ? Order.ASC : Order.DESC;
+        if (cursor.getSort() == MemberCursorSort.ID) {
+            return new OrderSpecifier[]{new OrderSpecifier<>(order, member.id)};
+        }
+        return new OrderSpecifier[]{new OrderSpecifier<>(order, member.age), new OrderSpecifier<>(order, member.id)};
     }
 
     private BooleanExpression ageBetween(int ageLoe, int ageGoe) { // 보여주기식 조합 예쩨
@@ -238,10 +569,6 @@ public class MemberRepositoryImpl extends QuerydslRepositorySupport implements M
         return hasText(userName) ? member.userName.eq(userName) : null;
     }
 
-    private BooleanExpression teamNameEq(String teamName) {
-        return hasText(teamName) ? team.name.eq(teamName) : null;
-    }
-
     private BooleanExpression ageGoe(Integer ageGoe) {
         return ageGoe != null ? member.age.goe(ageGoe) : null;
     }
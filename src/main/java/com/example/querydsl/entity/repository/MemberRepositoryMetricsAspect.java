@@ -0,0 +1,95 @@
+package com.example.querydsl.entity.repository;
+
+import com.example.querydsl.controller.dto.MemberCursorPage;
+import com.example.querydsl.controller.dto.MemberSearchCondition;
+import com.example.querydsl.entity.repository.support.SqlStatementCounter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 회원 검색 레포지토리의 public 메서드마다 지연시간, 실행한 SQL 문장 수, 반환 로우 수를 기록한다.
+ * 태그는 method (클래스.메서드), shape (걸린 검색 조건 조합) -> /actuator/metrics/member.repository.latency?tag=shape:teamName
+ */
+@Aspect
+@Component
+public class MemberRepositoryMetricsAspect {
+
+    private static final double[] PERCENTILES = {0.5, 0.95, 0.99};
+
+    private final MeterRegistry registry;
+
+    public MemberRepositoryMetricsAspect(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Around("execution(public * com.example.querydsl.entity.repository.MemberRepositoryImpl.*(..))"
+            + " || execution(public * com.example.querydsl.entity.repository.MemberJpaRepository.*(..))"
+            + " || execution(public * com.example.querydsl.entity.repository.MemberTestRepository.*(..))")
+    public Object record(ProceedingJoinPoint joinPoint) throws Throwable {
+        Tags tags = Tags.of(
+                "method", joinPoint.getSignature().getDeclaringType().getSimpleName() + "." + joinPoint.getSignature().getName(),
+                "shape", shapeOf(joinPoint.getArgs()));
+
+        SqlStatementCounter.Snapshot before = SqlStatementCounter.snapshot();
+        long start = System.nanoTime();
+        String outcome = "success";
+        try {
+            Object result = joinPoint.proceed();
+            DistributionSummary.builder("member.repository.rows")
+                    .tags(tags)
+                    .register(registry)
+                    .record(rowsOf(result));
+            return result;
+        } catch (Throwable e) {
+            outcome = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            Timer.builder("member.repository.latency")
+                    .tags(tags.and("outcome", outcome))
+                    .publishPercentiles(PERCENTILES)
+                    .publishPercentileHistogram()
+                    .register(registry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            DistributionSummary.builder("member.repository.statements")
+                    .tags(tags)
+                    .register(registry)
+                    .record(before.delta().total());
+        }
+    }
+
+    private static String shapeOf(Object[] args) {
+        for (Object arg : args) {
+            if (arg instanceof MemberSearchCondition) {
+                return MemberSearchTemplate.shapeName((MemberSearchCondition) arg);
+            }
+        }
+        return "n/a";
+    }
+
+    private static long rowsOf(Object result) {
+        if (result instanceof Collection) {
+            return ((Collection<?>) result).size();
+        }
+        if (result instanceof Slice) { // Page 포함
+            return ((Slice<?>) result).getNumberOfElements();
+        }
+        if (result instanceof MemberCursorPage) {
+            return ((MemberCursorPage) result).getContent().size();
+        }
+        if (result instanceof Optional) {
+            return ((Optional<?>) result).isPresent() ? 1 : 0;
+        }
+        return result != null ? 1 : 0;
+    }
+}
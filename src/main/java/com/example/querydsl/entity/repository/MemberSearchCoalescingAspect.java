@@ -0,0 +1,82 @@
+package com.example.querydsl.entity.repository;
+
+import com.example.querydsl.controller.dto.MemberCursor;
+import com.example.querydsl.entity.repository.support.SingleFlight;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 같은 검색 조건/페이지로 동시에 들어온 MemberRepositoryCustom 호출을 한 번만 실행하고 결과를 나눠 준다. (SingleFlight)
+ * 아낀 호출은 member.repository.coalesced (method 태그) 로 센다.
+ * <ul>
+ *     <li>MemberSearchNormalizationAspect 안쪽에서 돌아서 표현만 다른 같은 조건도 합쳐진다.</li>
+ *     <li>트랜잭션/메트릭 애스펙트보다 바깥이라 합쳐진 호출은 트랜잭션도 안 열고 latency 에도 안 잡힌다.</li>
+ *     <li>쓰기 트랜잭션 안의 호출은 자기 변경이 보여야 하므로 합치지 않는다.</li>
+ *     <li>리더를 카운트 쿼리 timeout (querydsl.page.parallel-count.timeout-millis) 보다 오래 기다리지 않는다.
+ *     넘으면 직접 실행하고 member.repository.coalesce-timeout 으로 센다.</li>
+ * </ul>
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class MemberSearchCoalescingAspect {
+
+    private final MeterRegistry registry;
+    private final boolean enabled;
+    private final SingleFlight<List<Object>> singleFlight;
+
+    public MemberSearchCoalescingAspect(MeterRegistry registry,
+                                        @Value("${querydsl.page.coalescing.enabled:true}") boolean enabled,
+                                        @Value("${querydsl.page.parallel-count.timeout-millis:3000}") long timeoutMillis) {
+        this.registry = registry;
+        this.enabled = enabled;
+        this.singleFlight = new SingleFlight<>(timeoutMillis);
+        Gauge.builder("member.repository.in-flight", singleFlight, SingleFlight::inFlight).register(registry);
+    }
+
+    @Around("execution(public * com.example.querydsl.entity.repository.MemberRepositoryImpl.*(..))"
+            + " && args(com.example.querydsl.controller.dto.MemberSearchCondition, ..)")
+    public Object coalesce(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (!enabled || isInWriteTransaction()) {
+            return joinPoint.proceed();
+        }
+
+        String method = joinPoint.getSignature().getDeclaringType().getSimpleName() + "." + joinPoint.getSignature().getName();
+        return singleFlight.execute(keyOf(method, joinPoint.getArgs()), joinPoint::proceed,
+                () -> Counter.builder("member.repository.coalesced")
+                        .tag("method", method)
+                        .register(registry)
+                        .increment(),
+                () -> Counter.builder("member.repository.coalesce-timeout")
+                        .tag("method", method)
+                        .register(registry)
+                        .increment());
+    }
+
+    // 조건(@Data), Pageable, 필드 Set 은 equals 가 있다. 커서는 equals 가 없으므로 인코딩한 문자열로 비교
+    private static List<Object> keyOf(String method, Object[] args) {
+        List<Object> key = new ArrayList<>(args.length + 1);
+        key.add(method);
+        for (Object arg : args) {
+            key.add(arg instanceof MemberCursor ? ((MemberCursor) arg).encode() : arg);
+        }
+        return key;
+    }
+
+    private static boolean isInWriteTransaction() {
+        return TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+}
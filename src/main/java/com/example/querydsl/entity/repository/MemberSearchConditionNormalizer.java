@@ -0,0 +1,86 @@
+package com.example.querydsl.entity.repository;
+
+import com.example.querydsl.controller.dto.MemberSearchCondition;
+
+import static org.springframework.util.StringUtils.hasText;
+
+/**
+ * 검색 조건을 DB 에 보내기 전에 정리한다. (나이는 0 이상이라고 가정)
+ * <ul>
+ *     <li>절대 맞을 수 없는 조건 -> 모순 (ageLoe &lt; 0, ageGoe &gt; ageLoe) -> 쿼리 없이 빈 결과</li>
+ *     <li>공백 문자열 -> null, ageGoe &lt;= 0 -> null (항상 참이라 조건이 없는 것과 같다)</li>
+ *     <li>ageGoe == ageLoe -> 조건 객체에는 그대로 두고, 쿼리는 age = ? 하나로 만든다. 그 기준이 exactAge 이고
+ *     Querydsl 쪽(MemberSearchPredicates.ageRange)과 JPQL 템플릿(MemberSearchTemplate)이 둘 다 이걸 쓴다.</li>
+ * </ul>
+ * 같은 뜻의 조건이 같은 모양(shape)이 되므로 쿼리 플랜, 카운트 캐시 키, 메트릭 태그도 그만큼 줄어든다.
+ */
+public final class MemberSearchConditionNormalizer {
+
+    static final int MIN_AGE = 0;
+
+    private MemberSearchConditionNormalizer() {
+    }
+
+    public static Normalized normalize(MemberSearchCondition condition) {
+        Integer ageGoe = condition.getAgeGoe() != null && condition.getAgeGoe() > MIN_AGE ? condition.getAgeGoe() : null;
+        Integer ageLoe = condition.getAgeLoe();
+
+        if (ageLoe != null && ageLoe < MIN_AGE) {
+            return Normalized.contradiction("negativeAge");
+        }
+        if (ageGoe != null && ageLoe != null && ageGoe > ageLoe) {
+            return Normalized.contradiction("emptyAgeRange");
+        }
+
+        MemberSearchCondition normalized = new MemberSearchCondition();
+        normalized.setUserName(hasText(condition.getUserName()) ? condition.getUserName() : null);
+        normalized.setTeamName(hasText(condition.getTeamName()) ? condition.getTeamName() : null);
+        normalized.setAgeGoe(ageGoe);
+        normalized.setAgeLoe(ageLoe);
+        return new Normalized(normalized, null);
+    }
+
+    /**
+     * 나이 범위가 한 살뿐이면 그 나이, 아니면 null
+     */
+    public static Integer exactAge(Integer ageGoe, Integer ageLoe) {
+        return ageGoe != null && ageGoe.equals(ageLoe) ? ageGoe : null;
+    }
+
+    public static Integer exactAge(MemberSearchCondition condition) {
+        return exactAge(condition.getAgeGoe(), condition.getAgeLoe());
+    }
+
+    public static class Normalized {
+
+        private final MemberSearchCondition condition;
+        private final String contradiction;
+
+        private Normalized(MemberSearchCondition condition, String contradiction) {
+            this.condition = condition;
+            this.contradiction = contradiction;
+        }
+
+        private static Normalized contradiction(String reason) {
+            return new Normalized(null, reason);
+        }
+
+        public boolean isContradiction() {
+            return contradiction != null;
+        }
+
+        /**
+         * 모순이면 null
+         */
+        public MemberSearchCondition getCondition() {
+            return condition;
+        }
+
+        /**
+         * 모순 사유 (메트릭 태그), 모순이 아니면 null
+         */
+        public String getContradiction() {
+            return contradiction;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.querydsl.entity.repository;
+
+import com.example.querydsl.controller.dto.EstimatedPage;
+import com.example.querydsl.controller.dto.FacetedPage;
+import com.example.querydsl.controller.dto.MemberCursorPage;
+import com.example.querydsl.controller.dto.MemberSearchCondition;
+import com.example.querydsl.entity.repository.MemberSearchConditionNormalizer.Normalized;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 회원 검색 레포지토리 메서드에 넘어온 MemberSearchCondition 을 정규화해서 넘기고, 모순이면 쿼리 없이 빈 결과를 돌려준다.
+ * 건너뛴 호출은 member.repository.short-circuit (method, reason 태그) 으로 센다.
+ * <p>
+ * MemberRepositoryMetricsAspect 보다 바깥에서 돌기 때문에 메트릭의 shape 태그도 정규화된 조건 기준이다.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class MemberSearchNormalizationAspect {
+
+    private final MeterRegistry registry;
+
+    public MemberSearchNormalizationAspect(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Around("(execution(public * com.example.querydsl.entity.repository.MemberRepositoryImpl.*(..))"
+            + " || execution(public * com.example.querydsl.entity.repository.MemberJpaRepository.*(..))"
+            + " || execution(public * com.example.querydsl.entity.repository.MemberTestRepository.*(..)))"
+            + " && args(com.example.querydsl.controller.dto.MemberSearchCondition, ..)")
+    public Object normalize(ProceedingJoinPoint joinPoint) throws Throwable {
+        Object[] args = joinPoint.getArgs();
+        Normalized normalized = MemberSearchConditionNormalizer.normalize((MemberSearchCondition) args[0]);
+
+        Class<?> returnType = ((MethodSignature) joinPoint.getSignature()).getReturnType();
+        if (normalized.isContradiction() && canShortCircuit(returnType)) {
+            Counter.builder("member.repository.short-circuit")
+                    .tag("method", joinPoint.getSignature().getDeclaringType().getSimpleName() + "." + joinPoint.getSignature().getName())
+                    .tag("reason", normalized.getContradiction())
+                    .register(registry)
+                    .increment();
+            return empty(returnType, pageableOf(args));
+        }
+
+        if (!normalized.isContradiction()) {
+            args[0] = normalized.getCondition(); // 호출 쪽 객체는 건드리지 않고 복사본을 넘긴다.
+        }
+        return joinPoint.proceed(args);
+    }
+
+    private static boolean canShortCircuit(Class<?> returnType) {
+        return returnType == void.class
+                || (Collection.class.isAssignableFrom(returnType) && returnType.isAssignableFrom(List.class))
+                || Slice.class.isAssignableFrom(returnType) // Page, EstimatedPage, FacetedPage 포함
+                || returnType == MemberCursorPage.class;
+    }
+
+    private static Object empty(Class<?> returnType, Pageable pageable) {
+        if (returnType == void.class) {
+            return null;
+        }
+        if (returnType == MemberCursorPage.class) {
+            return new MemberCursorPage(List.of(), null);
+        }
+        if (FacetedPage.class.isAssignableFrom(returnType)) {
+            return FacetedPage.empty(pageable);
+        }
+        if (EstimatedPage.class.isAssignableFrom(returnType)) {
+            return EstimatedPage.exact(Page.empty(pageable));
+        }
+        if (Page.class.isAssignableFrom(returnType)) {
+            return Page.empty(pageable);
+        }
+        if (Slice.class.isAssignableFrom(returnType)) {
+            return new SliceImpl<>(List.of(), pageable, false);
+        }
+        return List.of();
+    }
+
+    private static Pageable pageableOf(Object[] args) {
+        for (Object arg : args) {
+            if (arg instanceof Pageable) {
+                return (Pageable) arg;
+            }
+        }
+        return Pageable.unpaged();
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.querydsl.entity.repository;
+
+import com.querydsl.core.types.dsl.BooleanExpression;
+
+import static com.example.querydsl.entity.QMember.member;
+
+/**
+ * 검색 조건 -> Querydsl 조건. 세 레포지토리(MemberJpaRepository, MemberRepositoryImpl, MemberTestRepository)가 같이 쓴다.
+ * 나이 조건의 모양은 MemberSearchConditionNormalizer.exactAge 로 정하고, MemberSearchTemplate 의 JPQL 도 같은 기준을 쓴다.
+ */
+public final class MemberSearchPredicates {
+
+    private MemberSearchPredicates() {
+    }
+
+    /**
+     * ageGoe == ageLoe -> age = ?, 아니면 age >= ? and age <= ? (없는 쪽은 빠짐). 둘 다 없으면 null (where 에서 무시됨)
+     */
+    public static BooleanExpression ageRange(Integer ageGoe, Integer ageLoe) {
+        Integer exactAge = MemberSearchConditionNormalizer.exactAge(ageGoe, ageLoe);
+        if (exactAge != null) {
+            return member.age.eq(exactAge);
+        }
+        BooleanExpression goe = ageGoe != null ? member.age.goe(ageGoe) : null;
+        BooleanExpression loe = ageLoe != null ? member.age.loe(ageLoe) : null;
+        if (goe == null || loe == null) {
+            return goe != null ? goe : loe;
+        }
+        return goe.and(loe);
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.querydsl.entity.repository;
+
+import com.example.querydsl.controller.dto.MemberSearchCondition;
+import com.example.querydsl.controller.dto.MemberTeamDto;
+import com.example.querydsl.entity.Member;
+import com.example.querydsl.entity.repository.TeamIdDictionary.TeamIds;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.function.Function;
+
+import static com.example.querydsl.entity.repository.MemberSearchConditionNormalizer.exactAge;
+import static org.springframework.util.StringUtils.hasText;
+
+/**
+ * 검색 조건 4개(userName, teamName, ageGoe, ageLoe)는 있고 없고의 조합이 16가지 뿐이다. (ageGoe == ageLoe 는 age = ? 하나로 바꾼 모양)
+ * 매 요청마다 Querydsl 표현식 트리를 만들고 JPQL 로 직렬화하는 대신, 조합(shape)별 JPQL 과 파라미터 목록을 미리 만들어 두고 바로 실행한다.
+ * JPQL 문자열이 항상 같으므로 하이버네이트 쿼리 플랜 캐시도 그대로 탄다.
+ * teamName 은 TeamIdDictionary 로 바꾼 team_id 로 거르므로 team 은 DTO 에서 팀 컬럼을 조회할 때만 join 한다.
+ * <p>
+ * 조건의 의미와 모양은 MemberRepositoryImpl 의 userNameEq / TeamIds.predicate / MemberSearchPredicates.ageRange 와 같다.
+ */
+public final class MemberSearchTemplate {
+
+    private static final String DTO_SELECT = "select new com.example.querydsl.controller.dto.MemberTeamDto(m.id, m.userName, m.age, t.id, t.name)";
+    private static final String MEMBER_SELECT = "select m";
+    private static final String COUNT_SELECT = "select count(m)";
+    private static final String FROM = " from Member m";
+    private static final String TEAM_JOIN = " left join m.team t";
+
+    private static final int SHAPES = 1 << Predicate.values().length;
+
+    private static final Template[] DTO_TEMPLATES = build(DTO_SELECT, true);
+    private static final Template[] MEMBER_TEMPLATES = build(MEMBER_SELECT, false);
+    private static final Template[] COUNT_TEMPLATES = build(COUNT_SELECT, false);
+
+    private MemberSearchTemplate() {
+    }
+
+    /**
+     * @param teamIds condition.teamName 을 TeamIdDictionary 로 바꾼 값 (없는 팀 이름이면 호출 쪽에서 미리 걸러야 함)
+     */
+    public static TypedQuery<MemberTeamDto> dtoQuery(EntityManager em, MemberSearchCondition condition, TeamIds teamIds) {
+        return DTO_TEMPLATES[shapeOf(condition)].create(em, MemberTeamDto.class, condition, teamIds);
+    }
+
+    public static TypedQuery<Member> memberQuery(EntityManager em, MemberSearchCondition condition, TeamIds teamIds) {
+        return MEMBER_TEMPLATES[shapeOf(condition)].create(em, Member.class, condition, teamIds);
+    }
+
+    public static TypedQuery<Long> countQuery(EntityManager em, MemberSearchCondition condition, TeamIds teamIds) {
+        return COUNT_TEMPLATES[shapeOf(condition)].create(em, Long.class, condition, teamIds);
+    }
+
+    /**
+     * 어떤 조건이 걸려있는지를 비트로 나타낸 값 (0 ~ 15)
+     */
+    public static int shapeOf(MemberSearchCondition condition) {
+        int shape = 0;
+        for (Predicate predicate : Predicate.values()) {
+            if (predicate.valueOf(condition) != null) {
+                shape |= predicate.bit();
+            }
+        }
+        return shape;
+    }
+
+    /**
+     * 메트릭 태그용 이름 ex) userName+ageGoe, 조건이 없으면 none (바인딩 파라미터 이름이 아니라 검색 조건 이름)
+     */
+    public static String shapeName(MemberSearchCondition condition) {
+        StringJoiner name = new StringJoiner("+");
+        for (Predicate predicate : Predicate.values()) {
+            if (predicate.valueOf(condition) != null) {
+                name.add(predicate.conditionName);
+            }
+        }
+        return name.length() == 0 ? "none" : name.toString();
+    }
+
+    private static Template[] build(String select, boolean joinTeam) {
+        Template[] templates = new Template[SHAPES];
+        for (int shape = 0; shape < SHAPES; shape++) {
+            StringBuilder jpql = new StringBuilder(select).append(FROM);
+            if (joinTeam) {
+                jpql.append(TEAM_JOIN);
+            }
+            List<Predicate> parameters = new ArrayList<>();
+            for (Predicate predicate : Predicate.values()) {
+                if ((shape & predicate.bit()) != 0) {
+                    jpql.append(parameters.isEmpty() ? " where " : " and ").append(predicate.jpql);
+                    parameters.add(predicate);
+                }
+            }
+            templates[shape] = new Template(jpql.toString(), parameters.toArray(new Predicate[0]));
+        }
+        return templates;
+    }
+
+    private static class Template {
+
+        private final String jpql;
+        private final Predicate[] parameters;
+
+        private Template(String jpql, Predicate[] parameters) {
+            this.jpql = jpql;
+            this.parameters = parameters;
+        }
+
+        private <T> TypedQuery<T> create(EntityManager em, Class<T> resultClass, MemberSearchCondition condition, TeamIds teamIds) {
+            TypedQuery<T> query = em.createQuery(jpql, resultClass);
+            for (Predicate parameter : parameters) {
+                Object value = parameter == Predicate.TEAM_NAME ? teamIds.getIds() : parameter.valueOf(condition);
+                query.setParameter(parameter.parameterName, value);
+            }
+            return query;
+        }
+    }
+
+    private enum Predicate {
+
+        USER_NAME("userName", "userName", "m.userName = :userName", c -> hasText(c.getUserName()) ? c.getUserName() : null),
+        TEAM_NAME("teamName", "teamIds", "m.team.id in :teamIds", c -> hasText(c.getTeamName()) ? c.getTeamName() : null), // 팀 이름이 아니라 id 목록을 바인딩
+        AGE_GOE("ageGoe", "ageGoe", "m.age >= :ageGoe", c -> exactAge(c) == null ? c.getAgeGoe() : null),
+        AGE_LOE("ageLoe", "ageLoe", "m.age <= :ageLoe", c -> exactAge(c) == null ? c.getAgeLoe() : null),
+        AGE("age", "age", "m.age = :age", MemberSearchConditionNormalizer::exactAge); // ageGoe == ageLoe
+
+        private final String conditionName; // shapeName (메트릭 태그)
+        private final String parameterName; // jpql 의 바인딩 파라미터
+        private final String jpql;
+        private final Function<MemberSearchCondition, Object> value;
+
+        Predicate(String conditionName, String parameterName, String jpql, Function<MemberSearchCondition, Object> value) {
+            this.conditionName = conditionName;
+            this.parameterName = parameterName;
+            this.jpql = jpql;
+            this.value = value;
+        }
+
+        private int bit() {
+            return 1 << ordinal();
+        }
+
+        private Object valueOf(MemberSearchCondition condition) {
+            return value.apply(condition);
+        }
+    }
+}
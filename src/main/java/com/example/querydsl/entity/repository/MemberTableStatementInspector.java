@@ -0,0 +1,80 @@
+package com.example.querydsl.entity.repository;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * queryFactory.update(member) / delete(member) 같은 벌크 연산은 엔티티 이벤트가 안 뜨므로
+ * 실제 나가는 SQL 을 보고 member 테이블을 바꾸는 문장이면 카운트 캐시를 비운다.
+ * 카운트 캐시는 팀 이름으로 키를 잡고, 인메모리 읽기 모델은 팀 이름도 들고 있으므로 team 테이블을 바꿔도 비운다. 팀 이름 사전(TeamIdDictionary)도 마찬가지.
+ * 단, 읽기 모델은 엔티티 flush 로 나가는 문장이면 비우지 않는다. 바뀐 row 를 MemberColumnStoreListener 가 알려준다.
+ * <p>
+ * 이 빈은 EntityManagerFactory 설정에 쓰이므로 EntityManager 가 필요한 MemberColumnStore, TeamIdDictionary 는 실행 시점에 꺼낸다.
+ */
+@Component
+public class MemberTableStatementInspector implements StatementInspector, HibernatePropertiesCustomizer {
+
+    private static final Pattern MEMBER_WRITE = Pattern.compile(
+            "^\\s*(insert\\s+into|update|delete\\s+from|delete)\\s+member\\b", Pattern.CASE_INSENSITIVE);
+    private static final Pattern TEAM_WRITE = Pattern.compile(
+            "^\\s*(insert\\s+into|update|delete\\s+from|delete)\\s+team\\b", Pattern.CASE_INSENSITIVE);
+
+    private final MemberCountCache countCache;
+
+    private final ObjectProvider<MemberColumnStore> columnStore;
+
+    private final ObjectProvider<TeamIdDictionary> teamIdDictionary;
+
+    private final ObjectProvider<EntityManagerFactory> entityManagerFactory;
+
+    public MemberTableStatementInspector(MemberCountCache countCache, ObjectProvider<MemberColumnStore> columnStore,
+                                        ObjectProvider<TeamIdDictionary> teamIdDictionary,
+                                        ObjectProvider<EntityManagerFactory> entityManagerFactory) {
+        this.countCache = countCache;
+        this.columnStore = columnStore;
+        this.teamIdDictionary = teamIdDictionary;
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        if (MEMBER_WRITE.matcher(sql).find()) {
+            countCache.invalidateAllAfterCompletion();
+            if (!isEntityFlush()) {
+                columnStore.getObject().invalidateAllAfterCompletion();
+            }
+        } else if (TEAM_WRITE.matcher(sql).find()) {
+            countCache.invalidateAllAfterCompletion(); // 팀 이름이 바뀌면 같은 teamName 키가 다른 회원들을 가리킨다.
+            if (!isEntityFlush()) {
+                columnStore.getObject().invalidateAllAfterCompletion();
+            }
+            teamIdDictionary.getObject().invalidateAllAfterCompletion();
+        }
+        return sql; // SQL 은 그대로 둔다.
+    }
+
+    /*
+    * 엔티티 insert/update/delete 는 flush 도중에 나간다. 벌크 update/delete 는 자동 flush 를 끝낸 뒤 flush 밖에서 나간다.
+    * 트랜잭션에 묶인 EntityManager 가 없으면 어느 쪽인지 모르므로 벌크로 본다.
+    * */
+    private boolean isEntityFlush() {
+        EntityManagerHolder holder = (EntityManagerHolder) TransactionSynchronizationManager.getResource(entityManagerFactory.getObject());
+        return holder != null
+                && holder.getEntityManager().unwrap(SessionImplementor.class).getPersistenceContextInternal().isFlushing();
+    }
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, this);
+    }
+}
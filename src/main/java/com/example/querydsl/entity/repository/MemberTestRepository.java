@@ -2,27 +2,38 @@ package com.example.querydsl.entity.repository;
 
 
 import com.example.querydsl.controller.dto.MemberSearchCondition;
+import com.example.querydsl.controller.dto.MemberTeamDto;
+import com.example.querydsl.controller.dto.QMemberTeamDto;
 import com.example.querydsl.entity.Member;
+import com.example.querydsl.entity.repository.TeamIdDictionary.TeamIds;
+import com.example.querydsl.entity.repository.support.PaginationStrategy;
 import com.example.querydsl.entity.repository.support.Querydsl4RepositorySupport;
 import com.querydsl.core.types.dsl.BooleanExpression;
 import com.querydsl.jpa.impl.JPAQuery;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
 import static com.example.querydsl.entity.QMember.member;
+import static com.example.querydsl.entity.repository.MemberSearchPredicates.ageRange;
 import static com.example.querydsl.entity.QTeam.team;
 import static org.springframework.util.StringUtils.hasText;
 
 @Repository
+@Transactional(readOnly = true)
 public class MemberTestRepository extends Querydsl4RepositorySupport {
 
+    private final TeamIdDictionary teamIdDictionary;
 
-    public MemberTestRepository() {
+    public MemberTestRepository(TeamIdDictionary teamIdDictionary) {
         super(Member.class);
+        this.teamIdDictionary = teamIdDictionary;
     }
 
     public List<Member> basicSelect() {
@@ -33,15 +44,27 @@ public class MemberTestRepository extends Querydsl4RepositorySupport {
         return selectFrom(member).fetch();
     }
 
+    public List<Member> searchByTemplate(MemberSearchCondition condition) {
+        TeamIds teamIds = teamIdDictionary.resolve(condition.getTeamName());
+        if (teamIds.isUnknown()) {
+            return List.of();
+        }
+
+        return MemberSearchTemplate.memberQuery(getEntityManager(), condition, teamIds).getResultList();
+    }
+
     // 기존 QuerydslRepositorySupport 방식 -> 현재 사용하는건 직접 구현한 클래스를 사용하는거라 소팅이라던가 select 시작이라던가 이런게 다 가능하다. -> 기존 단점 보완
     public Page<Member> searchPageByApplyPage(MemberSearchCondition condition, Pageable pageable) {
-        JPAQuery<Member> query = selectFrom(member)
-                .leftJoin(member.team, team)
+        TeamIds teamIds = teamIdDictionary.resolve(condition.getTeamName());
+        if (teamIds.isUnknown()) {
+            return Page.empty(pageable);
+        }
+
+        JPAQuery<Member> query = selectFrom(member) // teamName 은 team_id 로 거르므로 team 조인 불필요
                 .where(
                         userNameEq(condition.getUserName()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
+                        teamIds.predicate(),
+                        ageRange(condition.getAgeGoe(), condition.getAgeLoe())
                 );
 
         List<Member> content = getQuerydsl().applyPagination(pageable, query).fetch();
@@ -50,38 +73,115 @@ public class MemberTestRepository extends Querydsl4RepositorySupport {
 
     // 커스텀 한 클래스를 이용하여 깔끔하게 표현 가능
     public Page<Member> applyPagination(MemberSearchCondition condition, Pageable pageable) {
+        TeamIds teamIds = teamIdDictionary.resolve(condition.getTeamName());
+        if (teamIds.isUnknown()) {
+            return Page.empty(pageable);
+        }
 
         return applyPagination(pageable, query ->
                 query.selectFrom(member)
-                        .leftJoin(member.team, team)
                         .where(
                                 userNameEq(condition.getUserName()),
-                                teamNameEq(condition.getTeamName()),
-                                ageGoe(condition.getAgeGoe()),
-                                ageLoe(condition.getAgeLoe())
+                                teamIds.predicate(),
+                                ageRange(condition.getAgeGoe(), condition.getAgeLoe())
                         )
         );
     }
 
     public Page<Member> applyPagination2(MemberSearchCondition condition,
                                          Pageable pageable) {
+        TeamIds teamIds = teamIdDictionary.resolve(condition.getTeamName());
+        if (teamIds.isUnknown()) {
+            return Page.empty(pageable);
+        }
+
         return applyPagination(pageable, contentQuery -> contentQuery
                         .selectFrom(member)
-                        .leftJoin(member.team, team)
                         .where(userNameEq(condition.getUserName()),
-                                teamNameEq(condition.getTeamName()),
-                                ageGoe(condition.getAgeGoe()),
-                                ageLoe(condition.getAgeLoe())),
+                                teamIds.predicate(),
+                                ageRange(condition.getAgeGoe(), condition.getAgeLoe())),
                 countQuery -> countQuery
                         .selectFrom(member)
-                        .leftJoin(member.team, team)
                         .where(userNameEq(condition.getUserName()),
-                                teamNameEq(condition.getTeamName()),
-                                ageGoe(condition.getAgeGoe()),
-                                ageLoe(condition.getAgeLoe()))
+                                teamIds.predicate(),
+                                ageRange(condition.getAgeGoe(), condition.getAgeLoe()))
         );
 }
 
+    // 카운트 쿼리 없는 Slice
+    public Slice<Member> applySlicing(MemberSearchCondition condition, Pageable pageable) {
+        TeamIds teamIds = teamIdDictionary.resolve(condition.getTeamName());
+        if (teamIds.isUnknown()) {
+            return new SliceImpl<>(List.of(), pageable, false);
+        }
+
+        return applySlicing(pageable, query -> query
+                .selectFrom(member)
+                .where(userNameEq(condition.getUserName()),
+                        teamIds.predicate(),
+                        ageRange(condition.getAgeGoe(), condition.getAgeLoe())));
+    }
+
+    // 페이징 방식 선택 -> 깊은 페이지 + 정렬이면 DEFERRED_JOIN 이 유리
+    public Page<Member> applyPagination(MemberSearchCondition condition, Pageable pageable, PaginationStrategy strategy) {
+        if (strategy == PaginationStrategy.OFFSET) {
+            return applyPagination(condition, pageable);
+        }
+
+        TeamIds teamIds = teamIdDictionary.resolve(condition.getTeamName());
+        if (teamIds.isUnknown()) {
+            return Page.empty(pageable);
+        }
+
+        return applyDeferredPagination(pageable, member.id,
+                query -> query.selectFrom(member)
+                        .where(userNameEq(condition.getUserName()),
+                                teamIds.predicate(),
+                                ageRange(condition.getAgeGoe(), condition.getAgeLoe())),
+                ids -> selectFrom(member)
+                        .where(member.id.in(ids))
+                        .fetch(),
+                Member::getId);
+    }
+
+    public Page<MemberTeamDto> searchPage(MemberSearchCondition condition, Pageable pageable, PaginationStrategy strategy) {
+        TeamIds teamIds = teamIdDictionary.resolve(condition.getTeamName());
+        if (teamIds.isUnknown()) {
+            return Page.empty(pageable);
+        }
+
+        if (strategy == PaginationStrategy.OFFSET) {
+            return applyPagination(pageable, query -> query
+                    .select(memberTeamDto())
+                    .from(member)
+                    .leftJoin(member.team, team)
+                    .where(userNameEq(condition.getUserName()),
+                            teamIds.predicate(),
+                            ageRange(condition.getAgeGoe(), condition.getAgeLoe())));
+        }
+
+        return applyDeferredPagination(pageable, member.id,
+                query -> query.selectFrom(member) // id 만 고르는 단계라 team 조인 불필요
+                        .where(userNameEq(condition.getUserName()),
+                                teamIds.predicate(),
+                                ageRange(condition.getAgeGoe(), condition.getAgeLoe())),
+                ids -> select(memberTeamDto())
+                        .from(member)
+                        .leftJoin(member.team, team)
+                        .where(member.id.in(ids))
+                        .fetch(),
+                MemberTeamDto::getMemberId);
+    }
+
+    private QMemberTeamDto memberTeamDto() {
+        return new QMemberTeamDto(
+                member.id.as("memberId"),
+                member.userName,
+                member.age,
+                team.id.as("teamId"),
+                team.name.as("teamName"));
+    }
+
     private BooleanExpression ageBetween(int ageLoe, int ageGoe) { // 보여주기식 조합 예쩨
 
         return ageGoe(ageGoe).and(ageLoe(ageLoe));
@@ -91,10 +191,6 @@ public class MemberTestRepository extends Querydsl4RepositorySupport {
         return hasText(userName) ? member.userName.eq(userName) : null;
     }
 
-    private BooleanExpression teamNameEq(String teamName) {
-        return hasText(teamName) ? team.name.eq(teamName) : null;
-    }
-
     private BooleanExpression ageGoe(Integer ageGoe) {
         return ageGoe != null ? member.age.goe(ageGoe) : null;
     }
@@ -0,0 +1,162 @@
+package com.example.querydsl.entity.repository;
+
+import com.querydsl.core.types.dsl.BooleanExpression;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.example.querydsl.entity.QMember.member;
+import static org.springframework.util.StringUtils.hasText;
+
+/**
+ * 팀 이름 -> team_id 사전. 검색 조건의 teamName 을 id 로 바꿔서 team 조인 없이 member.team_id 로 바로 거른다.
+ * <ul>
+ *     <li>팀은 몇 개 안 되고 거의 안 바뀌므로 전부 메모리에 올려두고, Team 이 저장/수정/삭제되면 비운다.
+ *     -> TeamIdDictionaryListener, 벌크 update/delete 는 MemberTableStatementInspector</li>
+ *     <li>다른 인스턴스에서 바뀐 팀은 이벤트가 안 오므로 ttlMillis 가 지나면 다시 읽는다.</li>
+ *     <li>사전에 없는 이름은 지금 사전이 살아 있는 동안 "없음" 으로 믿는다. -> 쿼리 없이 빈 결과 (TeamIds.isUnknown)
+ *     이 JVM 에서 만든 팀은 리스너가 사전을 비우고, 다른 인스턴스에서 만든 팀은 ttl 이 지나면 보인다.</li>
+ *     <li>쓰기 트랜잭션 안에서는 커밋 안 된 팀이 있을 수 있으므로 사전 대신 그 이름만 직접 조회한다. (자동 flush)</li>
+ * </ul>
+ * 이름이 같은 팀이 여럿이면 id 도 여러 개 -> member.team_id in (...)
+ */
+@Component
+public class TeamIdDictionary {
+
+    private final EntityManager em;
+    private final long ttlMillis;
+
+    private final AtomicLong generation = new AtomicLong(); // 비울 때마다 증가 -> 비우기 전에 읽기 시작한 사전이 뒤늦게 들어오는 것을 막는다.
+    private volatile Dictionary dictionary; // null 이면 다음 조회 때 다시 읽는다.
+
+    public TeamIdDictionary(EntityManager em, @Value("${querydsl.team-dictionary.ttl-millis:60000}") long ttlMillis) {
+        this.em = em;
+        this.ttlMillis = ttlMillis;
+    }
+
+    public TeamIds resolve(String teamName) {
+        if (!hasText(teamName)) {
+            return TeamIds.ANY;
+        }
+        if (isInWriteTransaction()) {
+            return new TeamIds(findIds(teamName));
+        }
+
+        List<Long> ids = dictionary().get(teamName);
+        return new TeamIds(ids != null ? ids : List.of());
+    }
+
+    public void invalidateAll() {
+        synchronized (this) {
+            generation.incrementAndGet();
+            dictionary = null;
+        }
+    }
+
+    /**
+     * 지금 비우고, 트랜잭션이 있으면 끝날 때 한 번 더 비운다. (MemberCountCache 와 같은 이유)
+     */
+    public void invalidateAllAfterCompletion() {
+        invalidateAll();
+        if (TransactionSynchronizationManager.isSynchronizationActive()
+                && !TransactionSynchronizationManager.hasResource(this)) {
+            TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(TeamIdDictionary.this);
+                    invalidateAll();
+                }
+            });
+        }
+    }
+
+    private Map<String, List<Long>> dictionary() {
+        Dictionary current = dictionary;
+        if (current != null && !current.isExpired()) {
+            return current.idsByName;
+        }
+
+        long startGeneration = generation.get();
+        Map<String, List<Long>> loaded = new HashMap<>();
+        for (Object[] row : em.createQuery("select t.name, t.id from Team t", Object[].class).getResultList()) {
+            loaded.computeIfAbsent((String) row[0], name -> new ArrayList<>(1)).add((Long) row[1]);
+        }
+        synchronized (this) {
+            if (generation.get() == startGeneration) {
+                dictionary = new Dictionary(loaded, System.currentTimeMillis() + ttlMillis);
+            }
+        }
+        return loaded;
+    }
+
+    // 이름이 같은 팀이 여럿일 수도 있어서 id 목록으로 조회한다.
+    private List<Long> findIds(String teamName) {
+        return em.createQuery("select t.id from Team t where t.name = :name", Long.class)
+                .setParameter("name", teamName)
+                .getResultList();
+    }
+
+    private static boolean isInWriteTransaction() {
+        return TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    private static class Dictionary {
+
+        private final Map<String, List<Long>> idsByName;
+        private final long expiresAt;
+
+        private Dictionary(Map<String, List<Long>> idsByName, long expiresAt) {
+            this.idsByName = idsByName;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired() {
+            return System.currentTimeMillis() >= expiresAt;
+        }
+    }
+
+    /**
+     * teamName 조건을 id 로 바꾼 결과
+     */
+    public static class TeamIds {
+
+        private static final TeamIds ANY = new TeamIds(null);
+
+        private final List<Long> ids; // null -> 조건 없음
+
+        private TeamIds(List<Long> ids) {
+            this.ids = ids;
+        }
+
+        /**
+         * 조건은 있는데 그런 이름의 팀이 없음 -> 결과는 항상 비어 있다.
+         */
+        public boolean isUnknown() {
+            return ids != null && ids.isEmpty();
+        }
+
+        public List<Long> getIds() {
+            return ids;
+        }
+
+        /**
+         * member.team.id 는 FK 컬럼이라 team 을 조인하지 않는다. 조건이 없으면 null (where 에서 무시됨)
+         */
+        public BooleanExpression predicate() {
+            if (ids == null) {
+                return null;
+            }
+            return ids.size() == 1 ? member.team.id.eq(ids.get(0)) : member.team.id.in(ids);
+        }
+    }
+}
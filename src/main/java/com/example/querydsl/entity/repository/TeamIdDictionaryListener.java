@@ -0,0 +1,29 @@
+package com.example.querydsl.entity.repository;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+/**
+ * Team 엔티티가 저장/수정/삭제되면 팀 이름 사전을 비운다.
+ * 엔티티 리스너는 EntityManagerFactory 를 만드는 도중에 생성되는데 TeamIdDictionary 는 EntityManager 가 필요하므로 이벤트 때 꺼내 쓴다. (순환 참조 방지)
+ */
+@Component
+public class TeamIdDictionaryListener {
+
+    private final ObjectProvider<TeamIdDictionary> teamIdDictionary;
+
+    public TeamIdDictionaryListener(ObjectProvider<TeamIdDictionary> teamIdDictionary) {
+        this.teamIdDictionary = teamIdDictionary;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void invalidate(Object entity) {
+        teamIdDictionary.getObject().invalidateAllAfterCompletion();
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.querydsl.entity.repository;
+
+import com.example.querydsl.entity.Team;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+/**
+ * Team 은 2차 캐시 대상이라 findById 는 캐시에 있으면 DB 를 안 거친다. (ehcache.xml)
+ * 이름으로 찾는 쿼리는 캐시하지 않는다. 이름 -> id 는 TeamIdDictionary 가 들고 있다.
+ */
+public interface TeamRepository extends JpaRepository<Team, Long> {
+}
@@ -0,0 +1,268 @@
+package com.example.querydsl.entity.repository.support;
+
+import com.querydsl.core.DefaultQueryMetadata;
+import com.querydsl.core.JoinExpression;
+import com.querydsl.core.JoinFlag;
+import com.querydsl.core.JoinType;
+import com.querydsl.core.QueryMetadata;
+import com.querydsl.core.types.CollectionExpression;
+import com.querydsl.core.types.Constant;
+import com.querydsl.core.types.EntityPath;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.FactoryExpression;
+import com.querydsl.core.types.MapExpression;
+import com.querydsl.core.types.Operation;
+import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.ParamExpression;
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.Projections;
+import com.querydsl.core.types.SubQueryExpression;
+import com.querydsl.core.types.TemplateExpression;
+import com.querydsl.core.types.Visitor;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.jpa.JPAQueryMixin;
+import com.querydsl.jpa.impl.JPAQuery;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.LongSupplier;
+
+/**
+ * 컨텐츠 쿼리로부터 count 쿼리를 만들어 준다.
+ * <p>
+ * fetchCount()가 deprecated 되면서 fetch().size()로 대신하고 있었는데, 이러면 전체 로우를 다 메모리에 올려서 세게 된다.
+ * 여기서는 컨텐츠 쿼리의 from / join / where / group by / having 만 복사하고
+ * fetch join, order by, offset/limit, 프로젝션은 버린 뒤 select count(...) 로 바꾼다.
+ * <ul>
+ *     <li>일반 쿼리 -> select count(root)</li>
+ *     <li>엔티티 distinct -> select count(distinct entity)</li>
+ *     <li>group by 또는 여러 컬럼 distinct -> JPQL은 from 절 서브쿼리를 지원하지 않으므로 그룹 키(distinct 컬럼)만 조회해서 센다.</li>
+ * </ul>
+ * 어디에서도 참조하지 않는 to-one left join 은 건수를 바꾸지 못하므로 빼고 센다. ex) 팀 조건이 없으면 select count(member) from Member member
+ */
+public final class CountQueryBuilder {
+
+    private CountQueryBuilder() {
+    }
+
+    /**
+     * PageableExecutionUtils.getPage 에 그대로 넘길 수 있도록 LongSupplier로 돌려준다. (필요할 때만 실행됨)
+     */
+    public static LongSupplier count(EntityManager em, JPAQuery<?> query) {
+        JPAQuery<?> countQuery = countQuery(em, query);
+        if (isCountQuery(countQuery.getMetadata().getProjection())) {
+            return () -> fetchCount(countQuery);
+        }
+        return () -> countQuery.fetch().size(); // 그룹 키만 조회해서 센다.
+    }
+
+    static JPAQuery<?> countQuery(EntityManager em, JPAQuery<?> query) {
+        QueryMetadata source = query.getMetadata();
+
+        if (isCountQuery(source.getProjection())) { // 이미 count 쿼리면 불필요한 join 만 정리
+            return new JPAQuery<>(em, copyOf(source, source.getProjection(), source.isDistinct()));
+        }
+
+        Expression<?> projection = source.getProjection() != null ? source.getProjection() : root(source);
+
+        if (!source.getGroupBy().isEmpty()) {
+            return new JPAQuery<>(em, copyOf(source, keys(source.getGroupBy()), source.isDistinct()));
+        }
+
+        if (source.isDistinct() && !(projection instanceof EntityPath)) {
+            return new JPAQuery<>(em, copyOf(source, keys(columns(projection)), true));
+        }
+
+        Expression<Long> count = source.isDistinct()
+                ? Expressions.numberOperation(Long.class, Ops.AggOps.COUNT_DISTINCT_AGG, projection)
+                : Expressions.numberOperation(Long.class, Ops.AggOps.COUNT_AGG, root(source));
+
+        return new JPAQuery<Long>(em, copyOf(source, count, false));
+    }
+
+    static boolean isCountQuery(Expression<?> projection) {
+        if (!(projection instanceof Operation)) {
+            return false;
+        }
+        Object operator = ((Operation<?>) projection).getOperator();
+        return operator == Ops.AggOps.COUNT_AGG
+                || operator == Ops.AggOps.COUNT_DISTINCT_AGG
+                || operator == Ops.AggOps.COUNT_ALL_AGG;
+    }
+
+    private static long fetchCount(JPAQuery<?> countQuery) {
+        Object count = countQuery.fetchOne();
+        return count != null ? ((Number) count).longValue() : 0L;
+    }
+
+    private static Expression<?> root(QueryMetadata metadata) {
+        return metadata.getJoins().get(0).getTarget();
+    }
+
+    private static List<Expression<?>> columns(Expression<?> projection) {
+        if (projection instanceof FactoryExpression) {
+            return ((FactoryExpression<?>) projection).getArgs();
+        }
+        return List.of(projection);
+    }
+
+    private static Expression<?> keys(List<Expression<?>> keys) {
+        return keys.size() == 1 ? keys.get(0) : Projections.tuple(keys.toArray(new Expression<?>[0]));
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static QueryMetadata copyOf(QueryMetadata source, Expression<?> projection, boolean distinct) {
+        QueryMetadata target = new DefaultQueryMetadata();
+
+        for (JoinExpression join : requiredJoins(source, projection)) {
+            target.addJoin(join.getType(), join.getTarget());
+            if (join.getCondition() != null) {
+                target.addJoinCondition(join.getCondition());
+            }
+            for (JoinFlag flag : join.getFlags()) {
+                if (!flag.equals(JPAQueryMixin.FETCH) && !flag.equals(JPAQueryMixin.FETCH_ALL_PROPERTIES)) { // count 에서 fetch join 은 에러
+                    target.addJoinFlag(flag);
+                }
+            }
+        }
+
+        if (source.getWhere() != null) {
+            target.addWhere(source.getWhere());
+        }
+        source.getGroupBy().forEach(target::addGroupBy);
+        if (source.getHaving() != null) {
+            target.addHaving(source.getHaving());
+        }
+        source.getParams().forEach((param, value) -> target.setParam((ParamExpression) param, value));
+        source.getFlags().forEach(target::addFlag);
+
+        target.setDistinct(distinct);
+        target.setProjection(projection);
+        return target;
+    }
+
+    /**
+     * 뒤에서부터 보면서 지워도 되는 join 을 뺀다. 뒤쪽 join 이 빠지면 그 join 이 참조하던 앞쪽 join 도 같이 빠질 수 있다.
+     */
+    private static List<JoinExpression> requiredJoins(QueryMetadata source, Expression<?> projection) {
+        List<JoinExpression> joins = new ArrayList<>(source.getJoins());
+        for (int i = joins.size() - 1; i > 0; i--) { // 0번은 from 절
+            JoinExpression join = joins.get(i);
+            if (isRemovable(join) && !referencedRoots(source, projection, joins, i).contains(alias(join))) {
+                joins.remove(i);
+            }
+        }
+        return joins;
+    }
+
+    /**
+     * left join 이라 기준 로우는 그대로 남고, to-one 연관관계라 로우가 늘어나지도 않는다.
+     * inner join 은 연관이 없는 로우를 걸러내고, 컬렉션/세타 join 은 로우를 늘리므로 남겨둔다.
+     */
+    private static boolean isRemovable(JoinExpression join) {
+        if (join.getType() != JoinType.LEFTJOIN || !(join.getTarget() instanceof Operation)) {
+            return false;
+        }
+        Operation<?> target = (Operation<?>) join.getTarget();
+        return target.getOperator() == Ops.ALIAS
+                && target.getArg(1) instanceof Path
+                && isToOneAssociation(target.getArg(0));
+    }
+
+    private static boolean isToOneAssociation(Expression<?> path) {
+        return path instanceof EntityPath
+                && !(path instanceof CollectionExpression)
+                && !(path instanceof MapExpression)
+                && ((Path<?>) path).getMetadata().getParent() != null; // member.team 처럼 부모가 있어야 연관관계
+    }
+
+    private static Path<?> alias(JoinExpression join) {
+        return (Path<?>) ((Operation<?>) join.getTarget()).getArg(1);
+    }
+
+    private static Set<Path<?>> referencedRoots(QueryMetadata source, Expression<?> projection,
+                                                List<JoinExpression> joins, int exclude) {
+        Set<Path<?>> roots = new HashSet<>();
+        RootCollector.collect(projection, roots);
+        RootCollector.collect(source.getWhere(), roots);
+        RootCollector.collect(source.getHaving(), roots);
+        source.getGroupBy().forEach(groupBy -> RootCollector.collect(groupBy, roots));
+        for (int i = 0; i < joins.size(); i++) {
+            if (i != exclude) {
+                RootCollector.collect(joins.get(i).getTarget(), roots);
+                RootCollector.collect(joins.get(i).getCondition(), roots);
+            }
+        }
+        return roots;
+    }
+
+    /**
+     * 식에 나오는 경로의 루트(별칭)를 모은다. ex) team.name.eq(..) -> team
+     * 상관 서브쿼리가 바깥 별칭을 참조할 수 있으므로 서브쿼리 안쪽도 본다.
+     */
+    private static final class RootCollector implements Visitor<Void, Set<Path<?>>> {
+
+        private static final RootCollector INSTANCE = new RootCollector();
+
+        private static void collect(Expression<?> expr, Set<Path<?>> roots) {
+            if (expr != null) {
+                expr.accept(INSTANCE, roots);
+            }
+        }
+
+        @Override
+        public Void visit(Constant<?> expr, Set<Path<?>> roots) {
+            return null;
+        }
+
+        @Override
+        public Void visit(FactoryExpression<?> expr, Set<Path<?>> roots) {
+            expr.getArgs().forEach(arg -> collect(arg, roots));
+            return null;
+        }
+
+        @Override
+        public Void visit(Operation<?> expr, Set<Path<?>> roots) {
+            expr.getArgs().forEach(arg -> collect(arg, roots));
+            return null;
+        }
+
+        @Override
+        public Void visit(ParamExpression<?> expr, Set<Path<?>> roots) {
+            return null;
+        }
+
+        @Override
+        public Void visit(Path<?> expr, Set<Path<?>> roots) {
+            roots.add(expr.getRoot());
+            return null;
+        }
+
+        @Override
+        public Void visit(SubQueryExpression<?> expr, Set<Path<?>> roots) {
+            QueryMetadata metadata = expr.getMetadata();
+            collect(metadata.getProjection(), roots);
+            collect(metadata.getWhere(), roots);
+            collect(metadata.getHaving(), roots);
+            metadata.getGroupBy().forEach(groupBy -> collect(groupBy, roots));
+            for (JoinExpression join : metadata.getJoins()) {
+                collect(join.getTarget(), roots);
+                collect(join.getCondition(), roots);
+            }
+            return null;
+        }
+
+        @Override
+        public Void visit(TemplateExpression<?> expr, Set<Path<?>> roots) {
+            for (Object arg : expr.getArgs()) {
+                if (arg instanceof Expression) {
+                    collect((Expression<?>) arg, roots);
+                }
+            }
+            return null;
+        }
+    }
+}
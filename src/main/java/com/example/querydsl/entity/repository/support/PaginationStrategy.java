@@ -0,0 +1,17 @@
+package com.example.querydsl.entity.repository.support;
+
+/**
+ * 페이징 방식
+ */
+public enum PaginationStrategy {
+
+    /**
+     * 조인된 전체 로우에 정렬 + offset/limit (기존 방식)
+     */
+    OFFSET,
+
+    /**
+     * 지연 조인 -> 좁은 쿼리로 해당 페이지의 id 만 정렬 + offset/limit 으로 구하고, 그 id 들의 로우만 다시 조회
+     */
+    DEFERRED_JOIN
+}
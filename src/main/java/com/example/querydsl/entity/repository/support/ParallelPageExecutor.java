@@ -0,0 +1,128 @@
+package com.example.querydsl.entity.repository.support;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.QueryTimeoutException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 페이징의 컨텐츠 쿼리와 카운트 쿼리를 동시에 실행한다. (querydsl.page.parallel-count.enabled=true 일 때만)
+ * <p>
+ * 카운트 쿼리는 별도 스레드에서 새 EntityManager(= 별도 커넥션)로 실행되고, 컨텐츠 쿼리는 호출 스레드에서 그대로 실행된다.
+ * 그래서 페이지 응답 시간이 content + count 가 아니라 max(content, count) 가 된다.
+ * <ul>
+ *     <li>호출 쪽에 쓰기 트랜잭션이 걸려 있으면 다른 커넥션에서는 커밋 안 된 변경이 안 보이므로 기존처럼 순차 실행한다.</li>
+ *     <li>읽기 전용 트랜잭션이면 카운트 스레드도 readOnly 로 표시해서 같은 레플리카 풀로 보낸다. (ReplicaRoutingDataSource)</li>
+ *     <li>PageableExecutionUtils 가 카운트가 필요 없다고 판단하면 실행 중인 카운트는 취소한다.</li>
+ *     <li>카운트가 timeout 을 넘기면 QueryTimeoutException (DB 쪽에도 같은 query timeout 힌트를 준다)
+ *     timeout 은 카운트를 제출한 시점부터 잰다. 컨텐츠 쿼리가 걸린 시간만큼 기다릴 시간이 줄어든다.</li>
+ * </ul>
+ */
+@Component
+public class ParallelPageExecutor {
+
+    private static final String QUERY_TIMEOUT_HINT = "javax.persistence.query.timeout";
+
+    private final EntityManager em;
+    private final EntityManagerFactory emf;
+    private final boolean enabled;
+    private final long timeoutMillis;
+    private final ThreadPoolExecutor executor;
+
+    public ParallelPageExecutor(EntityManager em,
+                                EntityManagerFactory emf,
+                                @Value("${querydsl.page.parallel-count.enabled:false}") boolean enabled,
+                                @Value("${querydsl.page.parallel-count.pool-size:4}") int poolSize,
+                                @Value("${querydsl.page.parallel-count.queue-capacity:100}") int queueCapacity,
+                                @Value("${querydsl.page.parallel-count.timeout-millis:3000}") long timeoutMillis) {
+        this.em = em;
+        this.emf = emf;
+        this.enabled = enabled;
+        this.timeoutMillis = timeoutMillis;
+
+        AtomicInteger sequence = new AtomicInteger();
+        // 큐가 가득 차면 호출 스레드에서 그냥 실행 -> 순차 실행과 같은 비용으로 떨어질 뿐 요청을 버리지는 않는다.
+        // queueCapacity 가 0 이면 큐 없이 빈 스레드가 없을 때 바로 호출 스레드에서 실행
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                queueCapacity > 0 ? new ArrayBlockingQueue<>(queueCapacity) : new SynchronousQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "page-count-" + sequence.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * @param content 컨텐츠 쿼리 (호출 스레드에서 실행)
+     * @param count   전달받은 EntityManager 로 카운트 쿼리를 만들어 실행하는 함수
+     */
+    public <T> Page<T> getPage(Pageable pageable, Supplier<List<T>> content, Function<EntityManager, Long> count) {
+        boolean readOnly = TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        if (!enabled || (TransactionSynchronizationManager.isActualTransactionActive() && !readOnly)) {
+            return PageableExecutionUtils.getPage(content.get(), pageable, () -> count.apply(em));
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        Future<Long> total = executor.submit(() -> countInNewEntityManager(count, readOnly));
+        try {
+            return PageableExecutionUtils.getPage(content.get(), pageable, () -> await(total, deadline));
+        } finally {
+            total.cancel(true); // 이미 끝났으면 아무 일도 안 함, 카운트가 필요 없었으면 여기서 정리
+        }
+    }
+
+    // CallerRunsPolicy 면 호출 스레드(readOnly 트랜잭션 안)에서 돌 수 있으므로 끝나면 원래 값으로 되돌린다.
+    private Long countInNewEntityManager(Function<EntityManager, Long> count, boolean readOnly) {
+        EntityManager countEm = emf.createEntityManager(Map.of(QUERY_TIMEOUT_HINT, timeoutMillis));
+        boolean previousReadOnly = TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(readOnly);
+        try {
+            return count.apply(countEm);
+        } finally {
+            TransactionSynchronizationManager.setCurrentTransactionReadOnly(previousReadOnly);
+            countEm.close();
+        }
+    }
+
+    private long await(Future<Long> total, long deadline) {
+        try {
+            Long count = total.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            return count != null ? count : 0L;
+        } catch (TimeoutException e) {
+            throw new QueryTimeoutException("count query did not finish within " + timeoutMillis + "ms");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while waiting for count query", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
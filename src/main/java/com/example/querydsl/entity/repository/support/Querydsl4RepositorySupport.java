@@ -2,12 +2,15 @@ package com.example.querydsl.entity.repository.support;
 
 import com.querydsl.core.types.EntityPath;
 import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.dsl.NumberPath;
 import com.querydsl.core.types.dsl.PathBuilder;
 import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.jpa.repository.support.JpaEntityInformation;
 import
         org.springframework.data.jpa.repository.support.JpaEntityInformationSupport;
@@ -19,8 +22,12 @@ import org.springframework.stereotype.Repository;
 import org.springframework.util.Assert;
 import javax.annotation.PostConstruct;
 import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.function.Function;
+import java.util.function.LongSupplier;
 /**
  * Querydsl 4.x 버전에 맞춘 Querydsl 지원 라이브러리
  *
@@ -82,13 +89,14 @@ public abstract class Querydsl4RepositorySupport {
     protected <T> Page<T> applyPagination(Pageable pageable,
                                           Function<JPAQueryFactory, JPAQuery> contentQuery) {
         JPAQuery jpaQuery = contentQuery.apply(getQueryFactory());
+        // applyPagination 이 jpaQuery 에 offset/limit 을 걸어버리므로 count 쿼리를 먼저 만들어 둔다.
+        LongSupplier total = CountQueryBuilder.count(getEntityManager(), jpaQuery);
         List<T> content = getQuerydsl().applyPagination(pageable,
                 jpaQuery).fetch();
 //        return PageableExecutionUtils.getPage(content, pageable,
 //                jpaQuery::fetchCount);
 
-        return PageableExecutionUtils.getPage(content, pageable,
-                jpaQuery.fetch()::size);
+        return PageableExecutionUtils.getPage(content, pageable, total);
     }
 
     protected <T> Page<T> applyPagination(Pageable pageable,
@@ -101,8 +109,77 @@ public abstract class Querydsl4RepositorySupport {
 //        return PageableExecutionUtils.getPage(content, pageable,
 //                countResult::fetchCount);
 
+        // select(member.count()) 처럼 넘기면 그대로, selectFrom(member) 처럼 넘기면 count 쿼리로 바꿔서 실행
         return PageableExecutionUtils.getPage(content, pageable,
-                countResult.fetch()::size);
+                CountQueryBuilder.count(getEntityManager(), countResult));
+    }
+
+    /**
+     * 전체 건수 없이 다음 페이지 존재 여부만 필요한 경우 -> limit + 1 로 조회해서 하나 더 나오면 hasNext, 카운트 쿼리는 없다.
+     */
+    protected <T> Slice<T> applySlicing(Pageable pageable,
+                                        Function<JPAQueryFactory, JPAQuery> contentQuery) {
+        JPAQuery jpaQuery = contentQuery.apply(getQueryFactory());
+        if (pageable.isUnpaged()) {
+            return new SliceImpl<T>(jpaQuery.fetch(), pageable, false);
+        }
+
+        getQuerydsl().applySorting(pageable.getSort(), jpaQuery);
+        List<T> content = jpaQuery
+                .offset(pageable.getOffset())
+                .limit(pageable.getPageSize() + 1)
+                .fetch();
+
+        boolean hasNext = content.size() > pageable.getPageSize();
+        if (hasNext) {
+            content = content.subList(0, pageable.getPageSize());
+        }
+        return new SliceImpl<>(content, pageable, hasNext);
+    }
+
+    /**
+     * 지연 조인(deferred join) 페이징.
+     * 깊은 페이지를 정렬하면 DB 가 넓은 로우 전체를 정렬하고 앞부분을 버리게 되므로,
+     * filterQuery 에 id 만 select 해서 (인덱스로 커버되는 좁은 쿼리) 정렬 + offset/limit 을 적용하고
+     * 구한 id 들의 로우만 rowsByIds 로 다시 조회한 뒤 id 순서대로 맞춰 돌려준다.
+     * 정렬 값이 같은 로우끼리는 순서가 정해져 있지 않아 페이지 사이에서 겹치거나 빠질 수 있으므로 id 쿼리 정렬 끝에 항상 idPath 를 붙인다.
+     *
+     * @param idPath     정렬/페이징할 id ex) member.id
+     * @param filterQuery from/join/where 만 담긴 쿼리 (카운트 쿼리도 여기서 만든다)
+     * @param rowsByIds  id 목록으로 실제 로우 조회 ex) where member.id in (:ids)
+     * @param idOf       로우에서 id 꺼내기 (순서 맞추기용)
+     */
+    protected <T> Page<T> applyDeferredPagination(Pageable pageable,
+                                                  NumberPath<Long> idPath,
+                                                  Function<JPAQueryFactory, JPAQuery> filterQuery,
+                                                  Function<List<Long>, List<T>> rowsByIds,
+                                                  Function<T, Long> idOf) {
+        JPAQuery jpaQuery = filterQuery.apply(getQueryFactory());
+        LongSupplier total = CountQueryBuilder.count(getEntityManager(), jpaQuery);
+
+        JPAQuery<Long> idQuery = jpaQuery.clone().select(idPath);
+        List<Long> ids = getQuerydsl().applyPagination(pageable, idQuery)
+                .orderBy(idPath.asc()) // tiebreaker
+                .fetch();
+
+        List<T> content = ids.isEmpty() ? List.of() : orderByIds(ids, rowsByIds.apply(ids), idOf);
+        return PageableExecutionUtils.getPage(content, pageable, total);
+    }
+
+    private static <T> List<T> orderByIds(List<Long> ids, List<T> rows, Function<T, Long> idOf) {
+        Map<Long, T> rowById = new HashMap<>(rows.size() * 2);
+        for (T row : rows) {
+            rowById.put(idOf.apply(row), row);
+        }
+
+        List<T> ordered = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            T row = rowById.get(id);
+            if (row != null) { // 그 사이 삭제된 로우는 건너뛴다.
+                ordered.add(row);
+            }
+        }
+        return ordered;
     }
 
 }
@@ -0,0 +1,143 @@
+package com.example.querydsl.entity.repository.support;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.springframework.util.StringUtils.hasText;
+
+/**
+ * querydsl.datasource.replica.enabled=true 면 spring.datasource 를 프라이머리로, replica.urls 를 레플리카로 묶은 라우팅 데이터소스를 쓴다.
+ * <ul>
+ *     <li>레플리카 계정은 따로 안 주면 프라이머리와 같다.</li>
+ *     <li>커넥션 풀 설정(spring.datasource.hikari.*)은 프라이머리와 레플리카에 똑같이 적용한다. 풀 이름만 primary / replica-N</li>
+ *     <li>replica.init-from-primary=true 면 시작할 때 프라이머리를 레플리카에 그대로 복사한다. (로컬 H2 전용, 아래 참고)</li>
+ * </ul>
+ */
+@Configuration
+@ConditionalOnProperty(name = "querydsl.datasource.replica.enabled", havingValue = "true")
+public class ReplicaDataSourceConfig {
+
+    private static final String HIKARI_PREFIX = "spring.datasource.hikari";
+
+    @Bean
+    public ReplicaDataSources replicaDataSources(DataSourceProperties properties, Environment environment,
+                                                 @Value("${querydsl.datasource.replica.urls}") List<String> urls,
+                                                 @Value("${querydsl.datasource.replica.username:}") String username,
+                                                 @Value("${querydsl.datasource.replica.password:}") String password) {
+        Binder binder = Binder.get(environment);
+        HikariDataSource primary = pool(binder, "primary",
+                properties.initializeDataSourceBuilder().type(HikariDataSource.class).build());
+
+        List<DataSource> replicas = new ArrayList<>();
+        for (String url : urls) {
+            replicas.add(pool(binder, "replica-" + replicas.size(), DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .driverClassName(properties.determineDriverClassName())
+                    .url(url.trim())
+                    .username(hasText(username) ? username : properties.determineUsername())
+                    .password(hasText(username) ? password : properties.determinePassword())
+                    .build()));
+        }
+        return new ReplicaDataSources(primary, replicas);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaDataSources sources,
+                                 @Value("${querydsl.datasource.replica.retry-millis:5000}") long retryMillis) {
+        // 트랜잭션이 readOnly 로 표시된 뒤 첫 SQL 을 실행할 때 커넥션을 얻도록 지연
+        return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(sources.primary, sources.replicas, retryMillis));
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "querydsl.datasource.replica.init-from-primary", havingValue = "true")
+    public ReplicaInitializer replicaInitializer(ReplicaDataSources sources) {
+        return new ReplicaInitializer(sources);
+    }
+
+    private static HikariDataSource pool(Binder binder, String poolName, HikariDataSource dataSource) {
+        binder.bind(HIKARI_PREFIX, Bindable.ofInstance(dataSource));
+        if (dataSource.getPoolName() == null) {
+            dataSource.setPoolName(poolName);
+        }
+        return dataSource;
+    }
+
+    /**
+     * 프라이머리/레플리카 커넥션 풀. DataSource 빈이 아니므로 p6spy 등 데이터소스 데코레이터가 감싸지 않는다. 종료할 때 풀을 닫는다.
+     */
+    @Getter
+    public static class ReplicaDataSources implements AutoCloseable {
+
+        private final HikariDataSource primary;
+        private final List<DataSource> replicas;
+
+        private ReplicaDataSources(HikariDataSource primary, List<DataSource> replicas) {
+            this.primary = primary;
+            this.replicas = replicas;
+        }
+
+        @Override
+        public void close() {
+            primary.close();
+            replicas.forEach(replica -> ((HikariDataSource) replica).close());
+        }
+    }
+
+    /**
+     * 로컬 H2 레플리카는 스키마도 데이터도 없는 빈 DB 라서 readOnly 조회가 전부 실패한다.
+     * 빈이 다 만들어진 뒤 (하이버네이트 ddl-auto, 샘플 데이터 적재 이후) 프라이머리를 SCRIPT 로 떠서 레플리카마다 다시 만든다.
+     * 복제는 이때 한 번뿐이라 이후 쓰기는 레플리카에 안 보인다. (복제 지연과 같은 상황을 로컬에서 볼 수 있다.)
+     * 프라이머리가 H2 가 아니면 아무것도 안 한다.
+     */
+    @Slf4j
+    public static class ReplicaInitializer implements SmartInitializingSingleton {
+
+        private final ReplicaDataSources sources;
+
+        private ReplicaInitializer(ReplicaDataSources sources) {
+            this.sources = sources;
+        }
+
+        @Override
+        public void afterSingletonsInstantiated() {
+            JdbcTemplate primary = new JdbcTemplate(sources.primary);
+            String product = primary.execute((ConnectionCallback<String>) con -> con.getMetaData().getDatabaseProductName());
+            if (!"H2".equalsIgnoreCase(product)) {
+                log.info("replica init-from-primary is only supported on H2, skipped for {}", product);
+                return;
+            }
+
+            List<String> script = primary.queryForList("script", String.class);
+            for (int i = 0; i < sources.replicas.size(); i++) {
+                JdbcTemplate replica = new JdbcTemplate(sources.replicas.get(i));
+                replica.execute("drop all objects");
+                for (String statement : script) {
+                    if (!statement.startsWith("--")) { // 로우 수 주석
+                        replica.execute(statement);
+                    }
+                }
+                log.info("replica-{} initialized from primary ({} statements)", i, script.size());
+            }
+        }
+    }
+}
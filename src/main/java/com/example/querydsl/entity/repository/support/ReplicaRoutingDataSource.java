@@ -0,0 +1,85 @@
+package com.example.querydsl.entity.repository.support;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 읽기 전용 트랜잭션(@Transactional(readOnly = true))의 커넥션은 레플리카로, 나머지는 전부 프라이머리로 보낸다.
+ * <ul>
+ *     <li>쓰기 트랜잭션 안의 조회, 트랜잭션 밖의 호출 -> 프라이머리 (방금 쓴 데이터를 바로 읽을 수 있어야 함)</li>
+ *     <li>레플리카가 여러 개면 라운드 로빈, 커넥션을 못 얻은 레플리카는 retryMillis 동안 빼고 다음 레플리카로 넘어간다.</li>
+ *     <li>레플리카가 전부 죽었으면 프라이머리</li>
+ * </ul>
+ * 트랜잭션 시작 시점에는 아직 readOnly 표시가 안 돼 있으므로 반드시 LazyConnectionDataSourceProxy 로 감싸서 써야 한다. (ReplicaDataSourceConfig)
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractDataSource {
+
+    private final DataSource primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final long retryMillis;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas, long retryMillis) {
+        this.primary = primary;
+        this.retryMillis = retryMillis;
+        for (int i = 0; i < replicas.size(); i++) {
+            this.replicas.add(new Replica("replica-" + i, replicas.get(i)));
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return getConnection(null, null);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        if (replicas.isEmpty() || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return connect(primary, username, password);
+        }
+
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get(Math.floorMod(next.getAndIncrement(), replicas.size()));
+            if (replica.isDown(now)) {
+                continue;
+            }
+            try {
+                return connect(replica.dataSource, username, password);
+            } catch (SQLException e) {
+                replica.downUntil = now + retryMillis;
+                log.warn("{} is unavailable for {}ms, trying next: {}", replica.name, retryMillis, e.getMessage());
+            }
+        }
+        return connect(primary, username, password); // 레플리카가 전부 죽음
+    }
+
+    private static Connection connect(DataSource dataSource, String username, String password) throws SQLException {
+        return username != null ? dataSource.getConnection(username, password) : dataSource.getConnection();
+    }
+
+    private static class Replica {
+
+        private final String name;
+        private final DataSource dataSource;
+        private volatile long downUntil;
+
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        private boolean isDown(long now) {
+            return now < downUntil;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.querydsl.entity.repository.support;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 같은 키로 동시에 들어온 호출을 하나로 합친다. 먼저 온 호출(리더)만 실제로 실행하고 나머지는 리더의 결과(또는 예외)를 같이 받는다.
+ * <p>
+ * 결과는 리더가 끝나는 순간 맵에서 빠지므로 캐시가 아니다. 실행 중에 들어온 호출만 결과를 공유하고 그 뒤에 온 호출은 다시 실행한다.
+ * 공유된 결과는 여러 스레드가 같은 객체를 받으므로 호출 쪽에서 고치면 안 된다.
+ * <p>
+ * 리더가 timeoutMillis 안에 안 끝나면 기다리던 호출은 더 안 기다리고 직접 실행한다. (합치지 않은 것과 같은 비용으로 떨어질 뿐 실패하지는 않는다.)
+ */
+public class SingleFlight<K> {
+
+    private final Map<K, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final long timeoutMillis;
+
+    public SingleFlight(long timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * @param onShared  리더의 결과를 기다리기 시작할 때 (= 실행을 아낀 경우) 호출된다.
+     * @param onTimeout 리더를 기다리다 timeout 이 나서 직접 실행할 때 호출된다.
+     */
+    @SuppressWarnings("unchecked")
+    public <V> V execute(K key, Call<V> call, Runnable onShared, Runnable onTimeout) throws Throwable {
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> leader = inFlight.putIfAbsent(key, mine);
+        if (leader != null) {
+            onShared.run();
+            try {
+                return (V) leader.get(timeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (ExecutionException e) {
+                throw e.getCause(); // 리더가 던진 예외를 그대로
+            } catch (TimeoutException e) {
+                onTimeout.run();
+                return call.call();
+            }
+        }
+
+        try {
+            V result = call.call();
+            mine.complete(result);
+            return result;
+        } catch (Throwable e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    public int inFlight() {
+        return inFlight.size();
+    }
+
+    @FunctionalInterface
+    public interface Call<V> {
+        V call() throws Throwable;
+    }
+}
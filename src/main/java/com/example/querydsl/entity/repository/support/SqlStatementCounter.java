@@ -0,0 +1,79 @@
+package com.example.querydsl.entity.repository.support;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.JdbcEventListener;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.util.Locale;
+
+/**
+ * 현재 스레드에서 실행된 SQL 문장 수를 종류별(select/insert/update/delete/other)로 센다.
+ * p6spy-spring-boot-starter 가 JdbcEventListener 빈을 자동으로 등록해 주므로 p6spy 가 켜져 있을 때만 동작한다.
+ * <p>
+ * 누적값이므로 구간의 문장 수는 시작할 때 snapshot() 을 떠 두고 끝날 때 delta() 로 구한다.
+ */
+@Component
+public class SqlStatementCounter extends JdbcEventListener {
+
+    private static final ThreadLocal<long[]> COUNTS = ThreadLocal.withInitial(() -> new long[Type.values().length]);
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        COUNTS.get()[Type.of(statementInformation.getSql()).ordinal()]++;
+    }
+
+    public static Snapshot snapshot() {
+        return new Snapshot(COUNTS.get().clone());
+    }
+
+    public enum Type {
+        SELECT, INSERT, UPDATE, DELETE, OTHER;
+
+        static Type of(String sql) {
+            if (sql == null) {
+                return OTHER;
+            }
+            String trimmed = sql.stripLeading().toLowerCase(Locale.ROOT);
+            for (Type type : values()) {
+                if (type != OTHER && trimmed.startsWith(type.name().toLowerCase(Locale.ROOT))) {
+                    return type;
+                }
+            }
+            return OTHER;
+        }
+    }
+
+    public static class Snapshot {
+
+        private final long[] counts;
+
+        private Snapshot(long[] counts) {
+            this.counts = counts;
+        }
+
+        /**
+         * 이 스냅샷 이후 지금까지 실행된 문장 수
+         */
+        public Snapshot delta() {
+            long[] now = COUNTS.get();
+            long[] diff = new long[counts.length];
+            for (int i = 0; i < counts.length; i++) {
+                diff[i] = now[i] - counts[i];
+            }
+            return new Snapshot(diff);
+        }
+
+        public long get(Type type) {
+            return counts[type.ordinal()];
+        }
+
+        public long total() {
+            long total = 0;
+            for (long count : counts) {
+                total += count;
+            }
+            return total;
+        }
+    }
+}
@@ -1,8 +1,10 @@
 package com.example.querydsl;
 
 import com.example.querydsl.controller.dto.MemberDto;
+import com.example.querydsl.controller.dto.MemberDtoProjection;
 import com.example.querydsl.controller.dto.QMemberDto;
 import com.example.querydsl.controller.dto.UserDto;
+import com.example.querydsl.controller.dto.UserDtoProjection;
 import com.example.querydsl.entity.Member;
 import com.example.querydsl.entity.QMember;
 import com.example.querydsl.entity.QTeam;
@@ -720,6 +722,30 @@ public class QueryDslBasicTest {
         }
     }
 
+    /*
+    * @DirectProjection
+    * @QueryProjection 처럼 컴파일 시점에 타입 체크가 되고, 로우마다 리플렉션 대신 생성자를 직접 호출한다.
+    * DTO 는 Querydsl 에 의존하지 않는다. (애노테이션은 소스에만 남음)
+    * */
+    @Test
+    void findDtoByDirectProjection() {
+        List<MemberDto> result = queryFactory
+                .select(MemberDtoProjection.of(member.userName, member.age))
+                .from(member)
+                .orderBy(member.age.asc())
+                .fetch();
+
+        List<UserDto> users = queryFactory
+                .select(UserDtoProjection.of(member.userName, member.age))
+                .from(member)
+                .orderBy(member.age.asc())
+                .fetch();
+
+        assertThat(result).extracting("userName").containsExactly("member1", "member2", "member3", "member4");
+        assertThat(result).extracting("age").containsExactly(10, 20, 30, 40);
+        assertThat(users).extracting("name").containsExactly("member1", "member2", "member3", "member4");
+    }
+
     /*
     * 동적 쿼리를 해결하는 두가지 방식
     * BooleanBuilder
@@ -0,0 +1,48 @@
+package com.example.querydsl.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+class MemberApiControllerTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Test
+    public void unknownFieldIsBadRequest() throws Exception {
+        mockMvc.perform(get("/v1/members").param("fields", "memberId,userNmae"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/v3/members").param("fields", "memberId,userNmae"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void knownFieldsAreOk() throws Exception {
+        mockMvc.perform(get("/v1/members").param("fields", "memberId,userName"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void nonPositiveAgeBucketIsBadRequest() throws Exception {
+        mockMvc.perform(get("/v3/members").param("facets", "true").param("ageBucket", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void nonPositiveCursorSizeIsBadRequest() throws Exception {
+        mockMvc.perform(get("/v4/members").param("size", "0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/v4/members").param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+}
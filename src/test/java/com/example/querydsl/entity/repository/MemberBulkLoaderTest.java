@@ -0,0 +1,75 @@
+package com.example.querydsl.entity.repository;
+
+import com.example.querydsl.entity.repository.MemberBulkLoader.LoadResult;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 로더가 직접 커밋하므로 @Transactional 없이 돌리고 지운다.
+ * insert 가 배치로 나갔는지는 하이버네이트 통계의 PreparedStatement 수로 본다. (로우마다 나가면 로우 수만큼)
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.jdbc.batch_size=50",
+        "spring.jpa.properties.hibernate.order_inserts=true",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "querydsl.bulk-load.commit-size=100"
+})
+class MemberBulkLoaderTest {
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    MemberBulkLoader bulkLoader;
+
+    @Autowired
+    TeamIdDictionary teamIdDictionary;
+
+    @AfterEach
+    public void after() {
+        transactionTemplate.executeWithoutResult(status -> {
+            em.createQuery("delete from Member").executeUpdate();
+            em.createQuery("delete from Team").executeUpdate();
+        });
+        teamIdDictionary.invalidateAll();
+    }
+
+    @Test
+    public void loadsAllRowsInBatches() throws Exception {
+        // given
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // when
+        LoadResult result = bulkLoader.load(3, 250);
+        long inserted = statistics.getEntityInsertCount();
+        long prepared = statistics.getPrepareStatementCount();
+
+        // then
+        assertThat(result.getRows()).isEqualTo(253);
+        assertThat(count("select count(m) from Member m")).isEqualTo(250);
+        assertThat(count("select count(m) from Member m where m.team is null")).isZero();
+        assertThat(count("select count(t) from Team t")).isEqualTo(3);
+
+        assertThat(inserted).isEqualTo(253);
+        // member 50건씩 5배치 + team 1배치 + 시퀀스 호출 몇 번 (member 100개, team 50개씩 받아옴)
+        assertThat(prepared).isLessThanOrEqualTo(15);
+    }
+
+    private long count(String jpql) {
+        return transactionTemplate.execute(status -> em.createQuery(jpql, Long.class).getSingleResult());
+    }
+}
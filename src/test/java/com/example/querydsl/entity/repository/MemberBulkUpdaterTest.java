@@ -0,0 +1,122 @@
+package com.example.querydsl.entity.repository;
+
+import com.example.querydsl.entity.Member;
+import com.example.querydsl.entity.repository.MemberBulkUpdater.Progress;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.example.querydsl.entity.QMember.member;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * chunk 마다 새 트랜잭션으로 커밋하므로 @Transactional 없이 직접 커밋하고 지운다.
+ */
+@SpringBootTest(properties = "querydsl.bulk-update.chunk-size=10")
+class MemberBulkUpdaterTest {
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    MemberBulkUpdater bulkUpdater;
+
+    @BeforeEach
+    public void before() {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < 25; i++) {
+                em.persist(new Member("member" + i, i + 10)); // 10 ~ 34살
+            }
+        });
+    }
+
+    @AfterEach
+    public void after() {
+        transactionTemplate.executeWithoutResult(status -> em.createQuery("delete from Member").executeUpdate());
+    }
+
+    @Test
+    public void updateInChunksAndReportProgress() throws Exception {
+        // given
+        List<Progress> progresses = new ArrayList<>();
+
+        // when
+        Progress result = bulkUpdater.update(member.age.lt(28), clause -> clause.set(member.userName, "비회원"), progresses::add);
+
+        // then
+        assertThat(result.getRows()).isEqualTo(18);
+        assertThat(result.getChunks()).isEqualTo(2);
+        assertThat(progresses).extracting("rows").containsExactly(10L, 18L);
+        assertThat(count("비회원")).isEqualTo(18);
+    }
+
+    @Test
+    public void deleteInChunks() throws Exception {
+        // when
+        Progress result = bulkUpdater.delete(member.age.gt(18), progress -> {});
+
+        // then
+        assertThat(result.getRows()).isEqualTo(16);
+        assertThat(result.getChunks()).isEqualTo(2);
+        assertThat(transactionTemplate.execute(status ->
+                em.createQuery("select count(m) from Member m", Long.class).getSingleResult())).isEqualTo(9);
+    }
+
+    @Test
+    public void evictsOnlyAffectedMembers() throws Exception {
+        transactionTemplate.executeWithoutResult(status -> {
+            // given
+            JPAQueryFactory queryFactory = new JPAQueryFactory(em);
+            Member young = queryFactory.selectFrom(member).where(member.age.eq(10)).fetchOne();
+            Member old = queryFactory.selectFrom(member).where(member.age.eq(30)).fetchOne();
+
+            // when
+            bulkUpdater.update(member.age.lt(28), clause -> clause.set(member.userName, "비회원"), progress -> {});
+
+            // then
+            assertThat(em.contains(young)).isFalse(); // 바뀐 회원만 detach -> 다시 읽으면 DB 값
+            assertThat(em.find(Member.class, young.getId()).getUserName()).isEqualTo("비회원");
+            assertThat(em.contains(old)).isTrue(); // 안 바뀐 회원은 그대로 1차 캐시에
+            assertThat(em.find(Member.class, old.getId())).isSameAs(old);
+        });
+    }
+
+    @Test
+    public void refusesToRunOverUnflushedChanges() throws Exception {
+        // given
+        transactionTemplate.executeWithoutResult(status -> {
+            Member young = new JPAQueryFactory(em).selectFrom(member).where(member.age.eq(10)).fetchOne();
+            young.setUserName("수정됨"); // 아직 flush 안 됨 -> detach 하면 사라질 변경
+
+            // when, then
+            assertThatThrownBy(() -> bulkUpdater.update(member.age.lt(28), clause -> clause.set(member.userName, "비회원"), progress -> {}))
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining(String.valueOf(young.getId()));
+            assertThat(em.contains(young)).isTrue();
+        });
+
+        // 시작 전에 막았으므로 chunk 는 하나도 커밋되지 않았다.
+        assertThat(count("비회원")).isZero();
+        assertThat(count("수정됨")).isEqualTo(1);
+    }
+
+    private long count(String userName) {
+        return transactionTemplate.execute(status -> em.createQuery(
+                        "select count(m) from Member m where m.userName = :userName", Long.class)
+                .setParameter("userName", userName)
+                .getSingleResult());
+    }
+}
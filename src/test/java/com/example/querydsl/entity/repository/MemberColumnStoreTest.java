@@ -0,0 +1,283 @@
+package com.example.querydsl.entity.repository;
+
+import com.example.querydsl.controller.dto.MemberSearchCondition;
+import com.example.querydsl.controller.dto.MemberTeamDto;
+import com.example.querydsl.entity.Member;
+import com.example.querydsl.entity.Team;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jol.info.GraphLayout;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static com.example.querydsl.entity.QMember.member;
+import static com.example.querydsl.support.SqlStatementAssertions.assertStatements;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.assertj.core.api.Assertions.withinPercentage;
+
+/**
+ * 읽기 모델은 커밋된 데이터만 올리므로 TeamIdDictionaryTest 처럼 @Transactional 없이 직접 커밋하고 지운다.
+ * 결과는 항상 DB 로 가는 MemberJpaRepository.search 와 비교한다.
+ */
+@SpringBootTest(properties = {
+        "querydsl.read-model.enabled=true",
+        "querydsl.read-model.ttl-millis=1000"
+})
+class MemberColumnStoreTest {
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+
+    @Autowired
+    MemberColumnStore columnStore;
+
+    @Autowired
+    TeamIdDictionary teamIdDictionary;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    public void before() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Team teamA = new Team("teamA");
+            Team teamB = new Team("teamB");
+            em.persist(teamA);
+            em.persist(teamB);
+            for (int i = 0; i < 1000; i++) {
+                Team team = i % 3 == 0 ? null : (i % 3 == 1 ? teamA : teamB);
+                em.persist(new Member("member" + (i % 10), i % 60, team));
+            }
+        });
+    }
+
+    @AfterEach
+    public void after() {
+        transactionTemplate.executeWithoutResult(status -> {
+            em.createQuery("delete from Member").executeUpdate();
+            em.createQuery("delete from Team").executeUpdate();
+        });
+        teamIdDictionary.invalidateAll();
+        columnStore.invalidateAll();
+    }
+
+    @Test
+    public void sameResultAsDatabase() throws Exception {
+        for (int shape = 0; shape < 16; shape++) {
+            // given
+            MemberSearchCondition condition = new MemberSearchCondition();
+            condition.setUserName((shape & 1) != 0 ? "member3" : null);
+            condition.setTeamName((shape & 2) != 0 ? "teamB" : null);
+            condition.setAgeGoe((shape & 4) != 0 ? 20 : null);
+            condition.setAgeLoe((shape & 8) != 0 ? 40 : null);
+
+            // when
+            List<MemberTeamDto> fromMemory = memberRepository.search(condition);
+            List<MemberTeamDto> fromDatabase = memberJpaRepository.search(condition);
+
+            // then
+            assertThat(fromMemory).as("shape %s", MemberSearchTemplate.shapeName(condition))
+                    .isNotEmpty()
+                    .containsExactlyInAnyOrderElementsOf(fromDatabase);
+        }
+    }
+
+    @Test
+    public void pageIsServedWithoutQueries() throws Exception {
+        // given
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+        condition.setAgeLoe(9);
+        memberRepository.search(condition); // 읽기 모델, 팀 사전 적재
+
+        // when
+        List<Page<MemberTeamDto>> result = new ArrayList<>();
+        assertStatements(() -> result.add(memberRepository.searchPageComplex(condition, PageRequest.of(1, 5)))).selects(0);
+
+        // then
+        Page<MemberTeamDto> page = result.get(0);
+        assertThat(page.getTotalElements()).isEqualTo(memberJpaRepository.search(condition).size());
+        assertThat(page.getContent()).hasSize(5);
+        assertThat(page.getContent()).extracting("memberId").isSorted();
+        assertThat(page.getContent()).extracting("teamName").containsOnly("teamA");
+    }
+
+    @Test
+    public void entityAndBulkChangesAreVisible() throws Exception {
+        // given
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUserName("newMember");
+        assertThat(memberRepository.search(condition)).isEmpty();
+
+        // when
+        transactionTemplate.executeWithoutResult(status -> em.persist(new Member("newMember", 70)));
+
+        // then
+        assertThat(memberRepository.search(condition)).extracting("age").containsExactly(70);
+
+        // when
+        transactionTemplate.executeWithoutResult(status -> new JPAQueryFactory(em)
+                .update(member)
+                .set(member.age, 71)
+                .where(member.userName.eq("newMember"))
+                .execute());
+
+        // then
+        assertThat(memberRepository.search(condition)).extracting("age").containsExactly(71);
+    }
+
+    @Test
+    public void entityChangesArePatchedWithoutReload() throws Exception {
+        // given
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUserName("newMember");
+        memberRepository.search(condition); // 읽기 모델 적재
+        List<MemberTeamDto> result = new ArrayList<>();
+
+        // when, then - 저장, 수정, 삭제 모두 다시 읽지 않고 바뀐 row 만 반영
+        Long id = transactionTemplate.execute(status -> {
+            Member newMember = new Member("newMember", 70);
+            em.persist(newMember);
+            return newMember.getId();
+        });
+        assertStatements(() -> result.addAll(memberRepository.search(condition))).selects(0);
+        assertThat(result).extracting("memberId", "age").containsExactly(tuple(id, 70));
+
+        transactionTemplate.executeWithoutResult(status -> em.find(Member.class, id).setAge(5));
+        result.clear();
+        assertStatements(() -> result.addAll(memberRepository.search(condition))).selects(0);
+        assertThat(result).extracting("age").containsExactly(5);
+
+        transactionTemplate.executeWithoutResult(status -> em.remove(em.find(Member.class, id)));
+        result.clear();
+        assertStatements(() -> result.addAll(memberRepository.search(condition))).selects(0);
+        assertThat(result).isEmpty();
+    }
+
+    @Test
+    public void patchedSnapshotMatchesDatabase() throws Exception {
+        // given
+        memberRepository.search(new MemberSearchCondition()); // 읽기 모델 적재
+        Object loaded = columnStore.snapshot();
+
+        // when - 한 트랜잭션에서 새 팀, 저장, 나이/팀/이름 변경, 삭제, 팀 이름 변경
+        transactionTemplate.executeWithoutResult(status -> {
+            Team teamC = new Team("teamC");
+            em.persist(teamC);
+            for (int i = 0; i < 30; i++) {
+                em.persist(new Member("newMember" + (i % 3), i * 2, i % 2 == 0 ? teamC : null));
+            }
+            List<Member> members = em.createQuery("select m from Member m where m.userName = 'member3' order by m.id", Member.class)
+                    .getResultList();
+            for (int i = 0; i < members.size(); i++) {
+                Member m = members.get(i);
+                if (i % 4 == 0) {
+                    em.remove(m);
+                } else if (i % 4 == 1) {
+                    m.setAge(m.getAge() + 7);
+                } else if (i % 4 == 2) {
+                    m.setTeam(teamC);
+                } else {
+                    m.setUserName("renamed");
+                }
+            }
+            em.createQuery("select t from Team t where t.name = 'teamB'", Team.class).getSingleResult().setName("teamB2");
+        });
+
+        // then
+        assertThat(columnStore.snapshot()).isNotNull().isNotSameAs(loaded); // 다시 읽은 게 아니라 반영한 스냅샷
+        assertStatements(() -> memberRepository.search(new MemberSearchCondition())).selects(0);
+        for (int shape = 0; shape < 16; shape++) {
+            MemberSearchCondition condition = new MemberSearchCondition();
+            condition.setUserName((shape & 1) != 0 ? "newMember1" : null);
+            condition.setTeamName((shape & 2) != 0 ? "teamC" : null);
+            condition.setAgeGoe((shape & 4) != 0 ? 20 : null);
+            condition.setAgeLoe((shape & 8) != 0 ? 40 : null);
+
+            assertThat(memberRepository.search(condition)).as("shape %s", MemberSearchTemplate.shapeName(condition))
+                    .containsExactlyElementsOf(memberJpaRepository.search(condition).stream()
+                            .sorted(Comparator.comparing(MemberTeamDto::getMemberId))
+                            .collect(Collectors.toList()));
+        }
+        MemberSearchCondition renamedTeam = new MemberSearchCondition();
+        renamedTeam.setTeamName("teamB2");
+        assertThat(memberRepository.search(renamedTeam)).isNotEmpty()
+                .containsExactlyInAnyOrderElementsOf(memberJpaRepository.search(renamedTeam));
+    }
+
+    @Test
+    public void rolledBackChangesAreNotApplied() throws Exception {
+        // given
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUserName("newMember");
+        memberRepository.search(condition); // 읽기 모델 적재
+
+        // when
+        transactionTemplate.executeWithoutResult(status -> {
+            em.persist(new Member("newMember", 70));
+            em.flush();
+            status.setRollbackOnly();
+        });
+
+        // then
+        List<MemberTeamDto> result = new ArrayList<>();
+        assertStatements(() -> result.addAll(memberRepository.search(condition))).selects(0);
+        assertThat(result).isEmpty();
+    }
+
+    @Test
+    public void changesFromOtherInstancesShowAfterTtl() throws Exception {
+        // given
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUserName("member3");
+        condition.setAgeGoe(99);
+        assertThat(memberRepository.search(condition)).isEmpty();
+
+        // when
+        jdbcTemplate.update("update member set age = 99 where user_name = 'member3'"); // 하이버네이트를 안 거침 -> 이벤트 없음
+
+        // then
+        assertThat(memberRepository.search(condition)).isEmpty(); // ttl 전에는 이전 스냅샷
+        Thread.sleep(1100);
+        assertThat(memberRepository.search(condition)).hasSize(100);
+    }
+
+    @Test
+    public void measuredFootprintPerMember() throws Exception {
+        // given
+        memberRepository.search(new MemberSearchCondition()); // 읽기 모델 적재
+        List<MemberTeamDto> dtos = memberJpaRepository.search(new MemberSearchCondition()); // 같은 로우를 DTO 로
+
+        // when - 참조를 따라가며 실제 객체 크기를 더한다. (JOL)
+        double columnar = (double) GraphLayout.parseInstance(columnStore.snapshot()).totalSize() / dtos.size();
+        double objects = (double) GraphLayout.parseInstance(dtos).totalSize() / dtos.size();
+
+        // then
+        assertThat(columnar).isBetween(24.0, 32.0); // 컬럼 24바이트 + 이름/팀 사전 몫
+        assertThat(objects).isGreaterThan(columnar * 3); // DTO 객체 + Long + 로우마다 따로 만들어지는 이름/팀 이름 문자열
+        assertThat(columnStore.bytesPerMember()).isCloseTo(columnar, withinPercentage(10)); // 게이지(추정치)가 실제와 크게 다르지 않은지
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.querydsl.entity.repository;
+
+import com.example.querydsl.controller.dto.MemberSearchCondition;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MemberCountCacheTest {
+
+    @Test
+    public void sameNormalizedConditionHitsCache() throws Exception {
+        // given
+        MemberCountCache cache = new MemberCountCache(new SimpleMeterRegistry(), true, 10, 60_000);
+        AtomicInteger executed = new AtomicInteger();
+
+        MemberSearchCondition blank = new MemberSearchCondition();
+        blank.setUserName(" ");
+        MemberSearchCondition empty = new MemberSearchCondition();
+
+        // when
+        long first = cache.get(blank, () -> { executed.incrementAndGet(); return 4L; });
+        long second = cache.get(empty, () -> { executed.incrementAndGet(); return 4L; });
+
+        // then
+        assertThat(first).isEqualTo(4L);
+        assertThat(second).isEqualTo(4L);
+        assertThat(executed.get()).isEqualTo(1);
+        assertThat(cache.getHitCount()).isEqualTo(1);
+        assertThat(cache.getMissCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void invalidateAndEvict() throws Exception {
+        // given
+        MemberCountCache cache = new MemberCountCache(new SimpleMeterRegistry(), true, 1, 60_000);
+        MemberSearchCondition teamA = new MemberSearchCondition();
+        teamA.setTeamName("teamA");
+        MemberSearchCondition teamB = new MemberSearchCondition();
+        teamB.setTeamName("teamB");
+
+        // when
+        cache.get(teamA, () -> 2L);
+        cache.get(teamB, () -> 2L); // 최대 1개 -> teamA 가 밀려남
+
+        // then
+        assertThat(cache.size()).isEqualTo(1);
+        assertThat(cache.getEvictionCount()).isEqualTo(1);
+
+        cache.invalidateAll();
+        assertThat(cache.size()).isZero();
+        assertThat(cache.get(teamB, () -> 3L)).isEqualTo(3L);
+    }
+
+    @Test
+    public void statisticsAreRegisteredAsMeters() throws Exception {
+        // given
+        MeterRegistry registry = new SimpleMeterRegistry();
+        MemberCountCache cache = new MemberCountCache(registry, true, 10, 60_000);
+        MemberSearchCondition teamA = new MemberSearchCondition();
+        teamA.setTeamName("teamA");
+
+        // when
+        cache.get(teamA, () -> 2L);
+        cache.get(teamA, () -> 2L);
+        cache.get(teamA, () -> 2L);
+
+        // then
+        assertThat(registry.get("member.count-cache.hits").functionCounter().count()).isEqualTo(2);
+        assertThat(registry.get("member.count-cache.misses").functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("member.count-cache.size").gauge().value()).isEqualTo(1);
+
+        cache.invalidateAll();
+        assertThat(registry.get("member.count-cache.invalidations").functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("member.count-cache.size").gauge().value()).isZero();
+    }
+}
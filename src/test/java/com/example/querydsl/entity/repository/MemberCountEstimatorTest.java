@@ -0,0 +1,114 @@
+package com.example.querydsl.entity.repository;
+
+import com.example.querydsl.controller.dto.EstimatedPage;
+import com.example.querydsl.controller.dto.MemberSearchCondition;
+import com.example.querydsl.controller.dto.MemberTeamDto;
+import com.example.querydsl.entity.Member;
+import com.example.querydsl.entity.Team;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * threshold 를 낮춰서 추정 경로를 탄다. 테이블 통계는 커밋된 로우 기준이므로 @Transactional 없이 직접 커밋하고 지운다.
+ * member 30건 (전부 teamA), teamB 는 회원 없음 -> teamName=teamB 는 추정치 15건(30 / 팀 2개)인데 실제로는 0건
+ */
+@SpringBootTest(properties = {
+        "querydsl.page.estimated-count.threshold=10",
+        "querydsl.page.estimated-count.stats-ttl-millis=0"
+})
+class MemberCountEstimatorTest {
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    TeamIdDictionary teamIdDictionary;
+
+    @BeforeEach
+    public void before() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Team teamA = new Team("teamA");
+            em.persist(teamA);
+            em.persist(new Team("teamB"));
+            for (int i = 0; i < 30; i++) {
+                em.persist(new Member("member" + i, i + 10, teamA));
+            }
+        });
+    }
+
+    @AfterEach
+    public void after() {
+        transactionTemplate.executeWithoutResult(status -> {
+            em.createQuery("delete from Member").executeUpdate();
+            em.createQuery("delete from Team").executeUpdate();
+        });
+        teamIdDictionary.invalidateAll();
+    }
+
+    @Test
+    public void fullPageUsesEstimate() throws Exception {
+        // when
+        EstimatedPage<MemberTeamDto> result = memberRepository.searchPageEstimated(new MemberSearchCondition(), PageRequest.of(0, 10), false);
+
+        // then
+        assertThat(result.isTotalExact()).isFalse();
+        assertThat(result.getContent()).hasSize(10);
+        assertThat(result.getTotalElements()).isEqualTo(30); // H2 ROW_COUNT_ESTIMATE
+    }
+
+    @Test
+    public void partialPageIsExact() throws Exception {
+        // when
+        EstimatedPage<MemberTeamDto> result = memberRepository.searchPageEstimated(new MemberSearchCondition(), PageRequest.of(2, 12), false);
+
+        // then
+        assertThat(result.isTotalExact()).isTrue();
+        assertThat(result.getContent()).hasSize(6);
+        assertThat(result.getTotalElements()).isEqualTo(30);
+    }
+
+    @Test
+    public void emptyFirstPageIsExactZero() throws Exception {
+        // given
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamB");
+
+        // when
+        EstimatedPage<MemberTeamDto> result = memberRepository.searchPageEstimated(condition, PageRequest.of(0, 10), false);
+
+        // then
+        assertThat(result.isTotalExact()).isTrue();
+        assertThat(result.getTotalElements()).isZero();
+    }
+
+    @Test
+    public void emptyLaterPageIsCappedAtOffset() throws Exception {
+        // given
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamB");
+
+        // when
+        EstimatedPage<MemberTeamDto> result = memberRepository.searchPageEstimated(condition, PageRequest.of(1, 5), false);
+
+        // then
+        assertThat(result.isTotalExact()).isFalse();
+        assertThat(result.getTotalElements()).isEqualTo(5); // 추정치 15 -> offset 5 로 제한
+        assertThat(result.hasNext()).isFalse();
+    }
+}
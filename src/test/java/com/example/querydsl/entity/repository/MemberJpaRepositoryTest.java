@@ -15,8 +15,10 @@ import org.springframework.transaction.annotation.Transactional;
 
 import javax.persistence.EntityManager;
 
+import java.util.ArrayList;
 import java.util.List;
 
+import static com.example.querydsl.support.SqlStatementAssertions.assertStatements;
 import static org.assertj.core.api.Assertions.*;
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -94,5 +96,84 @@ class MemberJpaRepositoryTest {
         assertThat(result).extracting("userName").containsExactly("member4");
     }
 
+    @Test
+    public void searchStreamTest() throws Exception {
+        // given
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamA));
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(20);
+
+        // when
+        List<MemberTeamDto> result = new ArrayList<>();
+        memberJpaRepository.searchStream(condition, 1, result::add);
+
+        // then
+        assertThat(result).extracting("userName").containsExactly("member2", "member3");
+    }
+
+    @Test
+    public void searchByTemplateTest() throws Exception { // 16가지 조건 조합 모두 Querydsl 동적 쿼리와 같은 결과
+        // given
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("member4", 40, teamB));
+
+        for (int shape = 0; shape < 16; shape++) {
+            MemberSearchCondition condition = new MemberSearchCondition();
+            condition.setUserName((shape & 1) != 0 ? "member3" : null);
+            condition.setTeamName((shape & 2) != 0 ? "teamB" : null);
+            condition.setAgeGoe((shape & 4) != 0 ? 20 : null);
+            condition.setAgeLoe((shape & 8) != 0 ? 30 : null);
+
+            // when
+            List<MemberTeamDto> dynamic = memberJpaRepository.search(condition);
+            List<MemberTeamDto> template = memberJpaRepository.searchByTemplate(condition);
+
+            // then
+            assertThat(template).usingRecursiveFieldByFieldElementComparator()
+                    .containsExactlyInAnyOrderElementsOf(dynamic);
+        }
+    }
+
+    @Test
+    public void searchMemberStatementCount() throws Exception { // Member.team 은 LAZY -> 팀 이름을 꺼낼 때마다 팀 조회 (N+1)
+        // given
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("member4", 40, teamB));
+
+        assertStatements(() -> {
+            em.flush();
+            em.clear();
+        }).insertsAtMost(6).selects(0);
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+
+        // DTO 프로젝션은 조인 한 번으로 끝
+        assertStatements(() -> memberJpaRepository.search(condition))
+                .selects(1)
+                .noWrites();
+
+        // 엔티티 조회 후 팀 접근 -> 멤버 조회 1 + 팀 수만큼 (같은 팀은 영속성 컨텍스트에서 재사용)
+        assertStatements(() -> memberJpaRepository.searchMember(condition)
+                .forEach(member -> member.getTeam().getName()))
+                .selectsAtMost(1 + 2)
+                .noWrites();
+    }
 
 }
\ No newline at end of file
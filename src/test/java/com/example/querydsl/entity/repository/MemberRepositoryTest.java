@@ -1,7 +1,13 @@
 package com.example.querydsl.entity.repository;
 
+import com.example.querydsl.controller.dto.EstimatedPage;
+import com.example.querydsl.controller.dto.FacetedPage;
+import com.example.querydsl.controller.dto.MemberCursor;
+import com.example.querydsl.controller.dto.MemberCursorPage;
+import com.example.querydsl.controller.dto.MemberCursorSort;
 import com.example.querydsl.controller.dto.MemberSearchCondition;
 import com.example.querydsl.controller.dto.MemberTeamDto;
+import com.example.querydsl.controller.dto.MemberTeamField;
 import com.example.querydsl.entity.Member;
 import com.example.querydsl.entity.QMember;
 import com.example.querydsl.entity.Team;
@@ -10,14 +16,23 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.transaction.annotation.Transactional;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import static com.example.querydsl.entity.QMember.member;
+import static com.example.querydsl.support.SqlStatementAssertions.assertStatements;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.junit.jupiter.api.Assertions.*;
 
 @SpringBootTest
@@ -108,6 +123,295 @@ class MemberRepositoryTest {
         assertThat(result.getContent()).extracting("userName").containsExactly("member1", "member2", "member3");
     }
 
+    @Test
+    public void searchPageComplex() throws Exception {
+        // given
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("member4", 40, teamB));
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(20);
+
+        // when
+        Page<MemberTeamDto> result = memberRepository.searchPageComplex(condition, PageRequest.of(0, 2));
+
+        // then
+        assertThat(result.getContent()).extracting("userName").containsExactly("member2", "member3");
+        assertThat(result.getTotalElements()).isEqualTo(3);
+    }
+
+    @Test
+    public void searchPageComplexStatementCount() throws Exception {
+        // given
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamA));
+        em.flush();
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+
+        // 첫 페이지인데 페이지 크기보다 적게 나오면 카운트 쿼리 생략
+        assertStatements(() -> memberRepository.searchPageComplex(condition, PageRequest.of(0, 10)))
+                .selects(1)
+                .noWrites();
+
+        // 페이지가 꽉 차면 컨텐츠 + 카운트
+        assertStatements(() -> memberRepository.searchPageComplex(condition, PageRequest.of(0, 2)))
+                .selects(2)
+                .noWrites();
+    }
+
+    @Test
+    public void contradictoryConditionSkipsQueries() throws Exception {
+        // given
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.flush();
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(30);
+        condition.setAgeLoe(20);
+
+        // when
+        List<Page<MemberTeamDto>> result = new ArrayList<>();
+        assertStatements(() -> result.add(memberRepository.searchPageComplex(condition, PageRequest.of(0, 10))))
+                .selects(0);
+
+        // then
+        assertThat(result.get(0).getContent()).isEmpty();
+        assertThat(result.get(0).getTotalElements()).isEqualTo(0);
+        assertThat(condition.getAgeGoe()).isEqualTo(30); // 호출 쪽 조건은 그대로
+    }
+
+    @Test
+    public void sameAgeBoundsSearchExactAge() throws Exception { // ageGoe == ageLoe -> age = ?
+        // given
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamA));
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(20);
+        condition.setAgeLoe(20);
+
+        // when
+        List<MemberTeamDto> result = memberRepository.search(condition);
+
+        // then
+        assertThat(result).extracting("userName").containsExactly("member2");
+    }
+
+    @Test
+    public void searchFieldsSelectsOnlyRequestedColumns() throws Exception {
+        // given
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20));
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(10);
+
+        // when
+        List<Map<String, Object>> narrow = memberRepository.searchFields(condition, EnumSet.of(MemberTeamField.USER_NAME, MemberTeamField.TEAM_ID));
+        List<Map<String, Object>> withTeam = memberRepository.searchFields(condition, MemberTeamField.parse(List.of("userName", "teamName")));
+
+        // then
+        assertThat(narrow).allSatisfy(row -> assertThat(row).containsOnlyKeys("userName", "teamId"));
+        assertThat(narrow).extracting(row -> row.get("teamId")).containsExactlyInAnyOrder(teamA.getId(), null);
+        assertThat(withTeam).extracting(row -> row.get("teamName")).containsExactlyInAnyOrder("teamA", null); // team 이 없어도 left join 이라 나온다.
+    }
+
+    @Test
+    public void searchPageFieldsFollowsSortAcrossPages() throws Exception {
+        // given
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamB));
+        em.persist(new Member("member3", 30, teamA));
+        em.persist(new Member("member4", 40, teamB));
+        em.flush();
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        Set<MemberTeamField> fields = EnumSet.of(MemberTeamField.USER_NAME);
+        Sort byTeamNameDesc = Sort.by(Sort.Direction.DESC, "team.name");
+
+        // when - 고른 컬럼에 team 이 없어도 team 컬럼으로 정렬할 수 있다.
+        Page<Map<String, Object>> first = memberRepository.searchPageFields(condition, fields, PageRequest.of(0, 3, byTeamNameDesc));
+        Page<Map<String, Object>> second = memberRepository.searchPageFields(condition, fields, PageRequest.of(1, 3, byTeamNameDesc));
+
+        // then - teamB 먼저, 같은 팀은 member_id 오름차순
+        assertThat(first.getContent()).extracting(row -> row.get("userName")).containsExactly("member2", "member4", "member1");
+        assertThat(second.getContent()).extracting(row -> row.get("userName")).containsExactly("member3");
+        assertThat(first.getTotalElements()).isEqualTo(4);
+    }
+
+    @Test
+    public void searchPageWithFacets() throws Exception {
+        // given
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 15, teamA));
+        em.persist(new Member("member3", 21, teamB));
+        em.persist(new Member("member4", 35));
+        em.flush();
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+
+        // when
+        List<FacetedPage<MemberTeamDto>> result = new ArrayList<>();
+        assertStatements(() -> result.add(memberRepository.searchPageWithFacets(condition, PageRequest.of(0, 2), 10)))
+                .selects(2); // 패싯 + 컨텐츠, 카운트 쿼리 없음
+        FacetedPage<MemberTeamDto> page = result.get(0);
+
+        // then
+        assertThat(page.getContent()).hasSize(2);
+        assertThat(page.getTotalElements()).isEqualTo(4);
+        assertThat(page.getFacets().getAgeBuckets()).extracting("from", "to", "count")
+                .containsExactly(tuple(10, 19, 2L), tuple(20, 29, 1L), tuple(30, 39, 1L));
+        assertThat(page.getFacets().getTeams()).extracting("teamName", "count")
+                .containsExactlyInAnyOrder(tuple("teamA", 2L), tuple("teamB", 1L), tuple(null, 1L));
+        assertThat(page.getFacets().getTeams().get(0).getTeamName()).isEqualTo("teamA"); // 건수 내림차순
+    }
+
+    @Test
+    public void searchPageEstimatedOnSmallTableIsExact() throws Exception { // threshold 보다 작은 테이블은 추정하지 않는다.
+        // given
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamA));
+        em.flush();
+
+        // when
+        EstimatedPage<MemberTeamDto> result = memberRepository.searchPageEstimated(new MemberSearchCondition(), PageRequest.of(0, 2), false);
+
+        // then
+        assertThat(result.isTotalExact()).isTrue();
+        assertThat(result.getTotalElements()).isEqualTo(3);
+    }
+
+    @Test
+    public void searchSlice() throws Exception {
+        // given
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamA));
+        em.flush();
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+
+        // when
+        Slice<MemberTeamDto> first = memberRepository.searchSlice(condition, PageRequest.of(0, 2));
+        Slice<MemberTeamDto> last = memberRepository.searchSlice(condition, PageRequest.of(1, 2));
+
+        // then
+        assertThat(first.getContent()).extracting("userName").containsExactly("member1", "member2");
+        assertThat(first.hasNext()).isTrue();
+        assertThat(last.getContent()).extracting("userName").containsExactly("member3");
+        assertThat(last.hasNext()).isFalse();
+
+        // 카운트 쿼리 없이 한 번만
+        assertStatements(() -> memberRepository.searchSlice(condition, PageRequest.of(0, 2)))
+                .selects(1);
+    }
+
+    @Test
+    public void searchSliceFollowsSortAndBreaksTiesById() throws Exception {
+        // given
+        em.persist(new Member("member1", 20));
+        em.persist(new Member("member2", 10));
+        em.persist(new Member("member3", 20));
+        em.persist(new Member("member4", 20));
+        em.flush();
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        Sort byAgeDesc = Sort.by(Sort.Direction.DESC, "age");
+
+        // when
+        Slice<MemberTeamDto> first = memberRepository.searchSlice(condition, PageRequest.of(0, 2, byAgeDesc));
+        Slice<MemberTeamDto> second = memberRepository.searchSlice(condition, PageRequest.of(1, 2, byAgeDesc));
+
+        // then - 나이 내림차순, 같은 나이는 member_id 오름차순
+        assertThat(first.getContent()).extracting("userName").containsExactly("member1", "member3");
+        assertThat(first.hasNext()).isTrue();
+        assertThat(second.getContent()).extracting("userName").containsExactly("member4", "member2");
+        assertThat(second.hasNext()).isFalse();
+    }
+
+    @Test
+    public void searchByCursor() throws Exception {
+        // given
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("member1", 40, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 20, teamB));
+        em.persist(new Member("member4", 10, teamB));
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        MemberCursor first = MemberCursor.first(MemberCursorSort.AGE, Sort.Direction.ASC);
+
+        // when
+        MemberCursorPage page1 = memberRepository.searchByCursor(condition, first, 2);
+        MemberCursorPage page2 = memberRepository.searchByCursor(condition, MemberCursor.decode(page1.getNextCursor()), 2);
+
+        // then
+        assertThat(page1.getContent()).extracting("userName").containsExactly("member4", "member2");
+        assertThat(page1.isHasNext()).isTrue();
+        assertThat(page2.getContent()).extracting("userName").containsExactly("member3", "member1");
+        assertThat(page2.isHasNext()).isFalse();
+        assertThat(page2.getNextCursor()).isNull();
+    }
+
+    @Test
+    public void searchByCursorSizeBoundaries() throws Exception {
+        // given
+        em.persist(new Member("member1", 10));
+        em.persist(new Member("member2", 20));
+        MemberSearchCondition condition = new MemberSearchCondition();
+        MemberCursor first = MemberCursor.first(MemberCursorSort.ID, Sort.Direction.ASC);
+
+        // when
+        MemberCursorPage one = memberRepository.searchByCursor(condition, first, 1);
+        MemberCursorPage max = memberRepository.searchByCursor(condition, first, Integer.MAX_VALUE); // MAX_SIZE 로 줄어듦
+
+        // then
+        assertThat(one.getContent()).extracting("userName").containsExactly("member1");
+        assertThat(one.isHasNext()).isTrue();
+        assertThat(max.getContent()).hasSize(2);
+        assertThat(max.isHasNext()).isFalse();
+        assertThatThrownBy(() -> memberRepository.searchByCursor(condition, first, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> memberRepository.searchByCursor(condition, first, -1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
     @Test
     public void querydslPredicateExecutor() throws Exception { // 조인이 필요없는 단순한 테이블에서만 사용할것. 조인은 그냥 지원을 안한다고 생각하면 편함.
         // given
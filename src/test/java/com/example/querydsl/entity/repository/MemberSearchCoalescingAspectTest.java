@@ -0,0 +1,210 @@
+package com.example.querydsl.entity.repository;
+
+import com.example.querydsl.controller.dto.MemberSearchCondition;
+import com.example.querydsl.controller.dto.MemberTeamDto;
+import com.example.querydsl.entity.Member;
+import com.example.querydsl.entity.repository.support.ParallelPageExecutor;
+import com.example.querydsl.entity.repository.support.SqlStatementCounter;
+import com.example.querydsl.entity.repository.support.SqlStatementCounter.Snapshot;
+import com.example.querydsl.entity.repository.support.SqlStatementCounter.Type;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.ApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * 두 스레드가 동시에 같은 검색을 부르도록 ParallelPageExecutor.getPage 에서 리더를 잡아 두고 푼다.
+ * 합쳐지려면 트랜잭션 밖이어야 하므로 @Transactional 없이 직접 커밋하고 지운다.
+ */
+@SpringBootTest
+class MemberSearchCoalescingAspectTest {
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    MemberCountCache countCache;
+
+    @Autowired
+    MeterRegistry registry;
+
+    @Autowired
+    ApplicationContext context;
+
+    @SpyBean
+    ParallelPageExecutor pageExecutor;
+
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    CountDownLatch entered = new CountDownLatch(2);
+    CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeEach
+    public void before() {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < 5; i++) {
+                em.persist(new Member("member" + i, i + 10));
+            }
+        });
+        countCache.invalidateAll(); // 카운트 쿼리까지 실제로 나가게
+
+        doAnswer(invocation -> {
+            entered.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return invocation.callRealMethod();
+        }).when(pageExecutor).getPage(any(), any(), any());
+    }
+
+    @AfterEach
+    public void after() {
+        release.countDown();
+        executor.shutdownNow();
+        transactionTemplate.executeWithoutResult(status -> em.createQuery("delete from Member").executeUpdate());
+    }
+
+    @Test
+    public void pointcutMatchesRepositoryFragment() throws Exception {
+        assertThat(AopUtils.isAopProxy(context.getBean(MemberRepositoryImpl.class))).isTrue();
+    }
+
+    @Test
+    public void concurrentIdenticalSearchesRunOnce() throws Exception {
+        // given
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(10);
+        double coalesced = coalesced();
+
+        // when
+        Future<Result> leader = submit(() -> memberRepository.searchPageComplex(condition, PageRequest.of(0, 3)));
+        assertThat(entered.getCount()).isEqualTo(1); // 리더만 getPage 에 들어와 있다.
+        Future<Result> follower = submit(() -> memberRepository.searchPageComplex(condition, PageRequest.of(0, 3)));
+        awaitCoalesced(coalesced + 1);
+        release.countDown();
+
+        // then - 한 벌의 쿼리 (컨텐츠 + 카운트) 만 리더 스레드에서 나간다.
+        Result first = leader.get(5, TimeUnit.SECONDS);
+        Result second = follower.get(5, TimeUnit.SECONDS);
+        assertThat(second.page).isSameAs(first.page);
+        assertThat(first.page.getTotalElements()).isEqualTo(5);
+        assertThat(first.selects + second.selects).isEqualTo(2);
+        assertThat(entered.getCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void equivalentConditionsAndPageablesShareOneKey() throws Exception {
+        // given - 정규화하면 같은 조건 (공백 이름 -> null, ageGoe 0 -> null), 같은 페이지 (unsorted)
+        MemberSearchCondition blank = new MemberSearchCondition();
+        blank.setUserName(" ");
+        blank.setAgeGoe(0);
+        blank.setAgeLoe(20);
+        MemberSearchCondition plain = new MemberSearchCondition();
+        plain.setAgeLoe(20);
+        double coalesced = coalesced();
+
+        // when
+        Future<Result> leader = submit(() -> memberRepository.searchPageComplex(blank, PageRequest.of(0, 3)));
+        Future<Result> follower = submit(() -> memberRepository.searchPageComplex(plain, PageRequest.of(0, 3, Sort.unsorted())));
+        awaitCoalesced(coalesced + 1);
+        release.countDown();
+
+        // then
+        assertThat(follower.get(5, TimeUnit.SECONDS).page).isSameAs(leader.get(5, TimeUnit.SECONDS).page);
+        assertThat(entered.getCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void writeTransactionsAreNotCoalesced() throws Exception {
+        // given
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(10);
+        Pageable pageable = PageRequest.of(0, 3);
+        double coalesced = coalesced();
+
+        // when - 둘 다 getPage 에 들어올 때까지 잡아 둔다. 합쳐졌다면 두 번째는 안 들어온다.
+        Future<Result> first = submit(() -> transactionTemplate.execute(status -> memberRepository.searchPageComplex(condition, pageable)));
+        Future<Result> second = submit(() -> transactionTemplate.execute(status -> memberRepository.searchPageComplex(condition, pageable)));
+        awaitEntered(0);
+        release.countDown();
+
+        // then
+        assertThat(first.get(5, TimeUnit.SECONDS).selects).isEqualTo(2);
+        assertThat(second.get(5, TimeUnit.SECONDS).selects).isEqualTo(2);
+        assertThat(coalesced()).isEqualTo(coalesced);
+    }
+
+    private Future<Result> submit(Supplier<Page<MemberTeamDto>> search) throws InterruptedException {
+        long before = entered.getCount();
+        Future<Result> future = executor.submit(() -> {
+            Snapshot start = SqlStatementCounter.snapshot();
+            Page<MemberTeamDto> page = search.get();
+            return new Result(page, start.delta().get(Type.SELECT));
+        });
+        if (before == 2) {
+            awaitEntered(1); // 첫 호출이 리더가 될 때까지
+        }
+        return future;
+    }
+
+    private double coalesced() {
+        Counter counter = registry.find("member.repository.coalesced")
+                .tag("method", "MemberRepositoryImpl.searchPageComplex")
+                .counter();
+        return counter != null ? counter.count() : 0;
+    }
+
+    private void awaitCoalesced(double count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (coalesced() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(coalesced()).isEqualTo(count);
+    }
+
+    private void awaitEntered(long remaining) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (entered.getCount() > remaining && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(entered.getCount()).isEqualTo(remaining);
+    }
+
+    private static class Result {
+
+        private final Page<MemberTeamDto> page;
+        private final long selects;
+
+        private Result(Page<MemberTeamDto> page, long selects) {
+            this.page = page;
+            this.selects = selects;
+        }
+    }
+}
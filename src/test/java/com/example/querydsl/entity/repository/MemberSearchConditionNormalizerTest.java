@@ -0,0 +1,61 @@
+package com.example.querydsl.entity.repository;
+
+import com.example.querydsl.controller.dto.MemberSearchCondition;
+import com.example.querydsl.entity.repository.MemberSearchConditionNormalizer.Normalized;
+import org.junit.jupiter.api.Test;
+
+import static com.example.querydsl.entity.QMember.member;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MemberSearchConditionNormalizerTest {
+
+    @Test
+    public void contradictions() throws Exception {
+        MemberSearchCondition emptyRange = new MemberSearchCondition();
+        emptyRange.setAgeGoe(40);
+        emptyRange.setAgeLoe(30);
+
+        MemberSearchCondition negative = new MemberSearchCondition();
+        negative.setAgeLoe(-1);
+
+        assertThat(MemberSearchConditionNormalizer.normalize(emptyRange).getContradiction()).isEqualTo("emptyAgeRange");
+        assertThat(MemberSearchConditionNormalizer.normalize(negative).getContradiction()).isEqualTo("negativeAge");
+    }
+
+    @Test
+    public void equivalentConditionsBecomeSame() throws Exception {
+        // given
+        MemberSearchCondition loose = new MemberSearchCondition();
+        loose.setUserName(" ");
+        loose.setTeamName("");
+        loose.setAgeGoe(-5);
+        loose.setAgeLoe(30);
+
+        MemberSearchCondition canonical = new MemberSearchCondition();
+        canonical.setAgeLoe(30);
+
+        // when
+        Normalized normalized = MemberSearchConditionNormalizer.normalize(loose);
+
+        // then
+        assertThat(normalized.isContradiction()).isFalse();
+        assertThat(normalized.getCondition()).isEqualTo(canonical); // @Data equals
+        assertThat(MemberSearchTemplate.shapeName(normalized.getCondition())).isEqualTo("ageLoe");
+    }
+
+    @Test
+    public void equalAgesBecomeOneEqualityEverywhere() throws Exception {
+        // given
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(20);
+        condition.setAgeLoe(20);
+
+        // when
+        MemberSearchCondition normalized = MemberSearchConditionNormalizer.normalize(condition).getCondition();
+
+        // then - Querydsl 쪽과 JPQL 템플릿이 같은 모양 (age = ?)
+        assertThat(MemberSearchConditionNormalizer.exactAge(normalized)).isEqualTo(20);
+        assertThat(MemberSearchPredicates.ageRange(normalized.getAgeGoe(), normalized.getAgeLoe())).isEqualTo(member.age.eq(20));
+        assertThat(MemberSearchTemplate.shapeName(normalized)).isEqualTo("age");
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.querydsl.entity.repository;
+
+import com.example.querydsl.controller.dto.MemberSearchCondition;
+import com.example.querydsl.entity.Member;
+import com.example.querydsl.entity.Team;
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.JdbcEventListener;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 검색 조건 모양마다 실제로 나가는 SQL 에 H2 EXPLAIN 을 걸어서 기대한 인덱스를 타는지 확인한다.
+ * 엔티티 인덱스 선언이 빠지거나 쿼리 모양이 바뀌어서 풀스캔이 되면 여기서 깨진다.
+ */
+@SpringBootTest
+@Transactional
+class MemberSearchExplainTest {
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    SqlCapture sqlCapture;
+
+    @BeforeEach
+    public void before() { // 없는 팀 이름이면 member 쿼리 자체가 안 나가므로 팀은 있어야 한다.
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        em.persist(new Member("member1", 20, teamA));
+    }
+
+    /**
+     * 모양별로 H2 가 골라야 하는 member 인덱스. (H2 비용: 등호 < 범위, 복합 인덱스에 조건이 더 걸리면 더 싸다. 비용이 같으면 먼저 선언한 인덱스)
+     * <ul>
+     *     <li>teamName + 나이 조건 -> (team_id, age) 복합 인덱스가 userName 등호 하나보다 싸다.</li>
+     *     <li>userName + teamName 만 -> 둘 다 등호 하나라 비용이 같고 먼저 선언한 idx_member_user_name</li>
+     * </ul>
+     */
+    private static final Map<String, String> EXPECTED_INDEX = Map.ofEntries(
+            Map.entry("none", "member.tablescan"), // member 는 left join 의 기준 테이블이라 풀스캔 (팀은 PK 로 조인)
+            Map.entry("userName", "idx_member_user_name"),
+            Map.entry("teamName", "idx_member_team_age"), // 팀 이름도 TeamIdDictionary 가 team_id 로 바꾼다.
+            Map.entry("userName+teamName", "idx_member_user_name"),
+            Map.entry("ageGoe", "idx_member_age"),
+            Map.entry("userName+ageGoe", "idx_member_user_name"),
+            Map.entry("teamName+ageGoe", "idx_member_team_age"),
+            Map.entry("userName+teamName+ageGoe", "idx_member_team_age"),
+            Map.entry("ageLoe", "idx_member_age"),
+            Map.entry("userName+ageLoe", "idx_member_user_name"),
+            Map.entry("teamName+ageLoe", "idx_member_team_age"),
+            Map.entry("userName+teamName+ageLoe", "idx_member_team_age"),
+            Map.entry("ageGoe+ageLoe", "idx_member_age"),
+            Map.entry("userName+ageGoe+ageLoe", "idx_member_user_name"),
+            Map.entry("teamName+ageGoe+ageLoe", "idx_member_team_age"),
+            Map.entry("userName+teamName+ageGoe+ageLoe", "idx_member_team_age"),
+            Map.entry("age", "idx_member_age"), // ageGoe == ageLoe -> age = ?
+            Map.entry("teamName+age", "idx_member_team_age"));
+
+    @Test
+    public void everySearchShapeUsesExpectedIndex() throws Exception {
+        List<MemberSearchCondition> conditions = new ArrayList<>();
+        for (int shape = 0; shape < 16; shape++) {
+            MemberSearchCondition condition = new MemberSearchCondition();
+            condition.setUserName((shape & 1) != 0 ? "member1" : null);
+            condition.setTeamName((shape & 2) != 0 ? "teamA" : null);
+            condition.setAgeGoe((shape & 4) != 0 ? 20 : null);
+            condition.setAgeLoe((shape & 8) != 0 ? 30 : null);
+            conditions.add(condition);
+        }
+        for (String teamName : new String[]{null, "teamA"}) {
+            MemberSearchCondition exactAge = new MemberSearchCondition();
+            exactAge.setTeamName(teamName);
+            exactAge.setAgeGoe(20);
+            exactAge.setAgeLoe(20);
+            conditions.add(exactAge);
+        }
+
+        for (MemberSearchCondition condition : conditions) {
+            // given
+            String shapeName = MemberSearchTemplate.shapeName(condition);
+
+            // when
+            sqlCapture.clear();
+            memberJpaRepository.search(condition);
+            String plan = explain(sqlCapture.lastSelect()).toLowerCase(Locale.ROOT);
+
+            // then
+            assertThat(EXPECTED_INDEX).as("shape %s", shapeName).containsKey(shapeName);
+            assertThat(plan).as("shape %s", shapeName).contains(EXPECTED_INDEX.get(shapeName));
+        }
+    }
+
+    private String explain(String sql) {
+        return String.join("\n", jdbcTemplate.queryForList("explain " + sql, String.class));
+    }
+
+    @TestConfiguration
+    static class SqlCaptureConfig {
+
+        @Bean
+        SqlCapture sqlCapture() { // p6spy 가 JdbcEventListener 빈을 자동으로 등록
+            return new SqlCapture();
+        }
+    }
+
+    static class SqlCapture extends JdbcEventListener {
+
+        private final List<String> selects = new ArrayList<>();
+
+        @Override
+        public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+            String sql = statementInformation.getSqlWithValues();
+            if (sql.stripLeading().toLowerCase(Locale.ROOT).startsWith("select")) {
+                selects.add(sql);
+            }
+        }
+
+        void clear() {
+            selects.clear();
+        }
+
+        String lastSelect() {
+            assertThat(selects).isNotEmpty();
+            return selects.get(selects.size() - 1);
+        }
+    }
+}
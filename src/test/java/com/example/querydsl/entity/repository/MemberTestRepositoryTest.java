@@ -0,0 +1,137 @@
+package com.example.querydsl.entity.repository;
+
+import com.example.querydsl.controller.dto.MemberSearchCondition;
+import com.example.querydsl.controller.dto.MemberTeamDto;
+import com.example.querydsl.entity.Member;
+import com.example.querydsl.entity.Team;
+import com.example.querydsl.entity.repository.support.PaginationStrategy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.example.querydsl.support.SqlStatementAssertions.assertStatements;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class MemberTestRepositoryTest {
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Autowired
+    MemberTestRepository memberTestRepository;
+
+    @BeforeEach
+    public void before() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("member4", 40, teamB));
+    }
+
+    @Test
+    public void applyPagination() throws Exception {
+        // given
+        MemberSearchCondition condition = new MemberSearchCondition();
+        PageRequest pageRequest = PageRequest.of(0, 3);
+
+        // when
+        Page<Member> result = memberTestRepository.applyPagination(condition, pageRequest);
+
+        // then
+        assertThat(result.getContent()).extracting("userName").containsExactly("member1", "member2", "member3");
+        assertThat(result.getTotalElements()).isEqualTo(4); // 페이지 사이즈가 아니라 실제 전체 건수
+    }
+
+    @Test
+    public void applyPaginationWithCountQuery() throws Exception {
+        // given
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamB");
+        PageRequest pageRequest = PageRequest.of(0, 1);
+
+        // when
+        Page<Member> result = memberTestRepository.applyPagination2(condition, pageRequest);
+
+        // then
+        assertThat(result.getContent()).extracting("userName").containsExactly("member3");
+        assertThat(result.getTotalElements()).isEqualTo(2);
+    }
+
+    @Test
+    public void applySlicing() throws Exception {
+        // given
+        MemberSearchCondition condition = new MemberSearchCondition();
+        PageRequest first = PageRequest.of(0, 3, Sort.by(Sort.Direction.DESC, "age"));
+        PageRequest last = PageRequest.of(1, 3, Sort.by(Sort.Direction.DESC, "age"));
+
+        // when
+        Slice<Member> firstSlice = memberTestRepository.applySlicing(condition, first);
+        Slice<Member> lastSlice = memberTestRepository.applySlicing(condition, last);
+
+        // then
+        assertThat(firstSlice.getContent()).extracting("userName").containsExactly("member4", "member3", "member2");
+        assertThat(firstSlice.hasNext()).isTrue();
+        assertThat(lastSlice.getContent()).extracting("userName").containsExactly("member1");
+        assertThat(lastSlice.hasNext()).isFalse();
+
+        // 카운트 쿼리 없이 limit + 1 한 번만
+        assertStatements(() -> memberTestRepository.applySlicing(condition, first))
+                .selects(1);
+    }
+
+    @Test
+    public void deferredJoinKeepsSortOrder() throws Exception {
+        // given
+        MemberSearchCondition condition = new MemberSearchCondition();
+        PageRequest pageRequest = PageRequest.of(1, 2, Sort.by(Sort.Direction.DESC, "age"));
+
+        // when
+        Page<Member> offset = memberTestRepository.applyPagination(condition, pageRequest, PaginationStrategy.OFFSET);
+        Page<Member> deferred = memberTestRepository.applyPagination(condition, pageRequest, PaginationStrategy.DEFERRED_JOIN);
+        Page<MemberTeamDto> deferredDto = memberTestRepository.searchPage(condition, pageRequest, PaginationStrategy.DEFERRED_JOIN);
+
+        // then
+        assertThat(deferred.getContent()).extracting("userName").containsExactly("member2", "member1");
+        assertThat(deferred.getContent()).containsExactlyElementsOf(offset.getContent());
+        assertThat(deferred.getTotalElements()).isEqualTo(4);
+        assertThat(deferredDto.getContent()).extracting("userName").containsExactly("member2", "member1");
+        assertThat(deferredDto.getContent()).extracting("teamName").containsExactly("teamA", "teamA");
+    }
+
+    @Test
+    public void deferredJoinBreaksTiesById() throws Exception {
+        // given - 나이가 같은 회원이 페이지 경계에 걸치도록
+        em.persist(new Member("member5", 20));
+        em.persist(new Member("member6", 20));
+        MemberSearchCondition condition = new MemberSearchCondition();
+
+        // when
+        List<Member> all = new ArrayList<>();
+        for (int page = 0; page < 3; page++) {
+            all.addAll(memberTestRepository.applyPagination(condition,
+                    PageRequest.of(page, 2, Sort.by(Sort.Direction.DESC, "age")), PaginationStrategy.DEFERRED_JOIN).getContent());
+        }
+
+        // then - 나이 내림차순, 같은 나이는 id 오름차순 (member2 -> member5 -> member6)
+        assertThat(all).extracting("userName")
+                .containsExactly("member4", "member3", "member2", "member5", "member6", "member1");
+    }
+}
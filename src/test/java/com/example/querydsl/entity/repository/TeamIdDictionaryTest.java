@@ -0,0 +1,166 @@
+package com.example.querydsl.entity.repository;
+
+import com.example.querydsl.controller.dto.MemberSearchCondition;
+import com.example.querydsl.controller.dto.MemberTeamDto;
+import com.example.querydsl.entity.Member;
+import com.example.querydsl.entity.Team;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.example.querydsl.support.SqlStatementAssertions.assertStatements;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 사전은 트랜잭션 밖(커밋된 데이터)에서만 캐시되므로 이 테스트는 @Transactional 없이 직접 커밋하고 지운다.
+ */
+@SpringBootTest
+class TeamIdDictionaryTest {
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    TeamIdDictionary teamIdDictionary;
+
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    MemberCountCache countCache;
+
+    @BeforeEach
+    public void before() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Team teamA = new Team("teamA");
+            em.persist(teamA);
+            em.persist(new Member("member1", 10, teamA));
+            em.persist(new Member("member2", 20));
+        });
+    }
+
+    @AfterEach
+    public void after() {
+        transactionTemplate.executeWithoutResult(status -> {
+            em.createQuery("delete from Member").executeUpdate();
+            em.createQuery("delete from Team").executeUpdate();
+        });
+        teamIdDictionary.invalidateAll(); // 벌크 delete 는 엔티티 리스너를 안 거친다.
+    }
+
+    @Test
+    public void unknownTeamNameSkipsMemberQuery() throws Exception {
+        // given
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamZ");
+        teamIdDictionary.resolve("teamA"); // 사전 적재
+
+        // when
+        List<MemberTeamDto> result = new ArrayList<>();
+        assertStatements(() -> result.addAll(memberJpaRepository.search(condition))).selects(0);
+
+        // then
+        assertThat(result).isEmpty();
+    }
+
+    @Test
+    public void knownTeamNameFiltersByTeamId() throws Exception {
+        // given
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+        teamIdDictionary.resolve("teamA");
+
+        // when
+        List<MemberTeamDto> result = new ArrayList<>();
+        assertStatements(() -> result.addAll(memberJpaRepository.search(condition))).selects(1);
+
+        // then
+        assertThat(result).extracting("userName").containsExactly("member1");
+        assertThat(result).extracting("teamName").containsExactly("teamA");
+    }
+
+    @Test
+    public void newTeamInvalidatesDictionary() throws Exception {
+        // given
+        assertThat(teamIdDictionary.resolve("teamB").isUnknown()).isTrue();
+
+        // when
+        transactionTemplate.executeWithoutResult(status -> em.persist(new Team("teamB")));
+
+        // then
+        assertThat(teamIdDictionary.resolve("teamB").isUnknown()).isFalse();
+    }
+
+    @Test
+    public void teamCreatedElsewhereIsFoundAfterReload() throws Exception {
+        // given
+        teamIdDictionary.resolve("teamA"); // 사전 적재
+        // 다른 인스턴스가 만든 팀 -> 하이버네이트를 안 거치므로 이 JVM 에는 이벤트가 없다.
+        jdbcTemplate.update("insert into team (team_id, name) values (?, ?)", 9999L, "teamC");
+
+        // when
+        List<TeamIdDictionary.TeamIds> result = new ArrayList<>();
+        assertStatements(() -> result.add(teamIdDictionary.resolve("teamC"))).selects(0); // 지금 사전의 "없음" 을 믿는다.
+        teamIdDictionary.invalidateAll(); // ttl 만료와 같다.
+        result.add(teamIdDictionary.resolve("teamC"));
+
+        // then
+        assertThat(result.get(0).isUnknown()).isTrue();
+        assertThat(result.get(1).getIds()).containsExactly(9999L);
+    }
+
+    @Test
+    public void bulkTeamUpdateInvalidatesDictionary() throws Exception {
+        // given
+        assertThat(teamIdDictionary.resolve("teamA").isUnknown()).isFalse();
+
+        // when
+        transactionTemplate.executeWithoutResult(status -> em.createQuery("update Team t set t.name = 'teamX' where t.name = 'teamA'")
+                .executeUpdate()); // 엔티티 이벤트 없음 -> MemberTableStatementInspector
+
+        // then
+        assertThat(teamIdDictionary.resolve("teamA").isUnknown()).isTrue();
+        assertThat(teamIdDictionary.resolve("teamX").isUnknown()).isFalse();
+    }
+
+    @Test
+    public void teamRenameInvalidatesCountCache() throws Exception {
+        // given - 카운트 캐시 키는 팀 이름이다.
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+        countCache.invalidateAll();
+        countCache.get(condition, () -> 1L);
+        assertThat(countCache.size()).isEqualTo(1);
+
+        // when - 엔티티로 이름 변경
+        transactionTemplate.executeWithoutResult(status -> em.createQuery("select t from Team t where t.name = 'teamA'", Team.class)
+                .getSingleResult()
+                .setName("teamX"));
+
+        // then
+        assertThat(countCache.size()).isZero();
+
+        // when - 벌크로 이름 변경 (엔티티 이벤트 없음 -> MemberTableStatementInspector)
+        countCache.get(condition, () -> 0L);
+        transactionTemplate.executeWithoutResult(status -> em.createQuery("update Team t set t.name = 'teamA' where t.name = 'teamX'")
+                .executeUpdate());
+
+        // then
+        assertThat(countCache.size()).isZero();
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.querydsl.entity.repository;
+
+import com.example.querydsl.entity.Team;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static com.example.querydsl.support.SqlStatementAssertions.assertStatements;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 테스트 application.yml 에는 캐시 설정이 없으므로 여기서 켠다. (main application.yml 과 같은 값)
+ * 2차 캐시는 영속성 컨텍스트 밖에서 보이므로 @Transactional 없이 호출마다 따로 조회한다.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+        "spring.jpa.properties.hibernate.cache.region.factory_class=jcache",
+        "spring.jpa.properties.hibernate.javax.cache.provider=org.ehcache.jsr107.EhcacheCachingProvider",
+        "spring.jpa.properties.hibernate.javax.cache.uri=classpath:ehcache.xml",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class TeamRepositoryTest {
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Autowired
+    EntityManagerFactory emf;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    TeamRepository teamRepository;
+
+    @Autowired
+    TeamIdDictionary teamIdDictionary;
+
+    @AfterEach
+    public void after() {
+        transactionTemplate.executeWithoutResult(status -> em.createQuery("delete from Team").executeUpdate());
+        teamIdDictionary.invalidateAll();
+    }
+
+    @Test
+    public void secondLoadIsServedFromSecondLevelCache() throws Exception {
+        // given
+        Team teamA = transactionTemplate.execute(status -> {
+            Team team = new Team("teamA");
+            em.persist(team);
+            return team;
+        });
+        emf.getCache().evict(Team.class); // 저장할 때 들어간 것을 비우고 조회로 채운다.
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // when
+        List<Optional<Team>> result = new ArrayList<>();
+        assertStatements(() -> result.add(teamRepository.findById(teamA.getId()))).selects(1);
+        assertStatements(() -> result.add(teamRepository.findById(teamA.getId()))).selects(0);
+
+        // then
+        assertThat(result).allSatisfy(team -> assertThat(team).get().extracting("name").isEqualTo("teamA"));
+        assertThat(statistics.getSecondLevelCacheMissCount()).isEqualTo(1);
+        assertThat(statistics.getSecondLevelCachePutCount()).isEqualTo(1);
+        assertThat(statistics.getSecondLevelCacheHitCount()).isEqualTo(1);
+    }
+}
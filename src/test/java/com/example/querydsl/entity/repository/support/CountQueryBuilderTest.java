@@ -0,0 +1,89 @@
+package com.example.querydsl.entity.repository.support;
+
+import com.example.querydsl.entity.Member;
+import com.example.querydsl.entity.Team;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import static com.example.querydsl.entity.QMember.member;
+import static com.example.querydsl.entity.QTeam.team;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class CountQueryBuilderTest {
+
+    @PersistenceContext
+    EntityManager em;
+
+    JPAQueryFactory queryFactory;
+
+    @BeforeEach
+    public void before() {
+        queryFactory = new JPAQueryFactory(em);
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("member4", 40));
+    }
+
+    @Test
+    public void unreferencedLeftJoinIsEliminated() throws Exception {
+        // given
+        JPAQuery<Member> query = queryFactory
+                .selectFrom(member)
+                .leftJoin(member.team, team).fetchJoin()
+                .where(member.age.goe(20));
+
+        // when
+        JPAQuery<?> countQuery = CountQueryBuilder.countQuery(em, query);
+
+        // then
+        assertThat(countQuery.toString()).doesNotContain("join");
+        assertThat(CountQueryBuilder.count(em, query).getAsLong()).isEqualTo(3); // 팀이 없는 member4 도 센다.
+    }
+
+    @Test
+    public void referencedJoinIsKept() throws Exception {
+        // given
+        JPAQuery<Long> query = queryFactory
+                .select(member.count())
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(team.name.eq("teamA"));
+
+        // when
+        JPAQuery<?> countQuery = CountQueryBuilder.countQuery(em, query);
+
+        // then
+        assertThat(countQuery.toString()).contains("left join");
+        assertThat(CountQueryBuilder.count(em, query).getAsLong()).isEqualTo(2);
+    }
+
+    @Test
+    public void innerJoinIsKept() throws Exception { // inner join 은 팀이 없는 로우를 걸러내므로 뺄 수 없다.
+        // given
+        JPAQuery<Member> query = queryFactory
+                .selectFrom(member)
+                .join(member.team, team);
+
+        // when
+        JPAQuery<?> countQuery = CountQueryBuilder.countQuery(em, query);
+
+        // then
+        assertThat(countQuery.toString()).contains("join");
+        assertThat(CountQueryBuilder.count(em, query).getAsLong()).isEqualTo(3);
+    }
+}
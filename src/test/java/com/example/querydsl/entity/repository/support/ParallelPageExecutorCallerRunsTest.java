@@ -0,0 +1,102 @@
+package com.example.querydsl.entity.repository.support;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 카운트 스레드 1개, 큐 없음 -> 스레드가 바쁘면 카운트가 호출 스레드에서 돈다. (CallerRunsPolicy)
+ * 그래도 호출 쪽 readOnly 트랜잭션은 끝까지 readOnly 여야 한다. (레플리카 라우팅, 캐시, 합치기가 이 값을 본다.)
+ */
+@SpringBootTest(properties = {
+        "querydsl.page.parallel-count.enabled=true",
+        "querydsl.page.parallel-count.pool-size=1",
+        "querydsl.page.parallel-count.queue-capacity=0"
+})
+class ParallelPageExecutorCallerRunsTest {
+
+    @Autowired
+    ParallelPageExecutor pageExecutor;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    ExecutorService background = Executors.newSingleThreadExecutor();
+    CountDownLatch busy = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    public void after() {
+        release.countDown();
+        background.shutdownNow();
+    }
+
+    @Test
+    public void callerRunsCountKeepsReadOnlyTransaction() throws Exception {
+        // given - 하나뿐인 카운트 스레드를 잡아 둔다.
+        Future<Page<String>> occupied = background.submit(() -> pageExecutor.getPage(PageRequest.of(0, 2),
+                () -> {
+                    await(release);
+                    return List.of("member1", "member2");
+                },
+                countEm -> {
+                    busy.countDown();
+                    await(release);
+                    return 2L;
+                }));
+        assertThat(busy.await(5, TimeUnit.SECONDS)).isTrue();
+
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        AtomicReference<Thread> countThread = new AtomicReference<>();
+        AtomicBoolean readOnlyInCount = new AtomicBoolean();
+        AtomicBoolean readOnlyAfter = new AtomicBoolean();
+
+        // when
+        Page<String> result = readOnly.execute(status -> {
+            Page<String> page = pageExecutor.getPage(PageRequest.of(0, 2),
+                    () -> List.of("member1", "member2"),
+                    countEm -> {
+                        countThread.set(Thread.currentThread());
+                        readOnlyInCount.set(TransactionSynchronizationManager.isCurrentTransactionReadOnly());
+                        return 5L;
+                    });
+            readOnlyAfter.set(TransactionSynchronizationManager.isCurrentTransactionReadOnly());
+            return page;
+        });
+
+        // then
+        assertThat(result.getTotalElements()).isEqualTo(5);
+        assertThat(countThread.get()).isSameAs(Thread.currentThread()); // 호출 스레드에서 실행됐다.
+        assertThat(readOnlyInCount).isTrue();
+        assertThat(readOnlyAfter).isTrue();
+
+        release.countDown();
+        assertThat(occupied.get(5, TimeUnit.SECONDS).getTotalElements()).isEqualTo(2);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.querydsl.entity.repository.support;
+
+import com.example.querydsl.controller.dto.MemberSearchCondition;
+import com.example.querydsl.controller.dto.MemberTeamDto;
+import com.example.querydsl.entity.Member;
+import com.example.querydsl.entity.repository.MemberCountCache;
+import com.example.querydsl.entity.repository.MemberRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.QueryTimeoutException;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 트랜잭션 밖에서만 카운트를 다른 스레드로 보내므로 @Transactional 없이 직접 커밋하고 지운다.
+ */
+@SpringBootTest(properties = {
+        "querydsl.page.parallel-count.enabled=true",
+        "querydsl.page.parallel-count.timeout-millis=500"
+})
+class ParallelPageExecutorTest {
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    ParallelPageExecutor pageExecutor;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    MemberCountCache countCache;
+
+    @BeforeEach
+    public void before() {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < 5; i++) {
+                em.persist(new Member("member" + i, i + 10));
+            }
+        });
+        countCache.invalidateAll();
+    }
+
+    @AfterEach
+    public void after() {
+        transactionTemplate.executeWithoutResult(status -> em.createQuery("delete from Member").executeUpdate());
+    }
+
+    @Test
+    public void parallelCountReturnsExactTotal() throws Exception {
+        // given
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(10);
+
+        // when
+        Page<MemberTeamDto> result = memberRepository.searchPageComplex(condition, PageRequest.of(0, 3));
+
+        // then
+        assertThat(result.getContent()).hasSize(3);
+        assertThat(result.getTotalElements()).isEqualTo(5);
+    }
+
+    @Test
+    public void unneededCountIsCancelled() throws Exception {
+        // given
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+
+        // when - 첫 페이지가 덜 찼으므로 카운트가 필요 없다.
+        Page<String> result = pageExecutor.getPage(PageRequest.of(0, 10),
+                () -> {
+                    await(started);
+                    return List.of("member1", "member2");
+                },
+                countEm -> {
+                    started.countDown();
+                    try {
+                        Thread.sleep(10_000);
+                    } catch (InterruptedException e) {
+                        interrupted.countDown();
+                    }
+                    return 0L;
+                });
+
+        // then
+        assertThat(result.getTotalElements()).isEqualTo(2);
+        assertThat(interrupted.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    public void timeoutCountsFromSubmit() throws Exception {
+        // given - 컨텐츠 400ms, 카운트 800ms, timeout 500ms
+        // 컨텐츠가 끝난 뒤부터 쟀다면 900ms 까지 기다려서 성공했을 것이다.
+        long start = System.nanoTime();
+
+        // when, then
+        assertThatThrownBy(() -> pageExecutor.getPage(PageRequest.of(0, 2),
+                () -> {
+                    sleep(400);
+                    return List.of("member1", "member2");
+                },
+                countEm -> {
+                    sleep(800);
+                    return 5L;
+                }))
+                .isInstanceOf(QueryTimeoutException.class);
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(800);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
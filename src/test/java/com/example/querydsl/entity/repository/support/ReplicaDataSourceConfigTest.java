@@ -0,0 +1,108 @@
+package com.example.querydsl.entity.repository.support;
+
+import com.example.querydsl.controller.dto.MemberSearchCondition;
+import com.example.querydsl.entity.Member;
+import com.example.querydsl.entity.repository.MemberJpaRepository;
+import com.example.querydsl.entity.repository.MemberRepository;
+import com.example.querydsl.entity.repository.support.ReplicaDataSourceConfig.ReplicaDataSources;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 라우팅을 켜고 레플리카 H2 두 개를 프라이머리 스키마로 초기화한 뒤, 레포지토리 호출이 실제로 어느 DB 를 읽는지 데이터로 확인한다.
+ * 프라이머리에만 있는 회원 / 레플리카에만 있는 회원을 따로 넣어 둔다. (복제가 없으므로 직접 커밋하고 지운다.)
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1",
+        "spring.datasource.hikari.maximum-pool-size=3",
+        "querydsl.datasource.replica.enabled=true",
+        "querydsl.datasource.replica.urls=jdbc:h2:mem:routing-replica1;DB_CLOSE_DELAY=-1,jdbc:h2:mem:routing-replica2;DB_CLOSE_DELAY=-1",
+        "querydsl.datasource.replica.init-from-primary=true",
+        "querydsl.read-model.enabled=true"
+})
+class ReplicaDataSourceConfigTest {
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    ReplicaDataSources sources;
+
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @BeforeEach
+    public void before() {
+        transactionTemplate.executeWithoutResult(status -> em.persist(new Member("primaryOnly", 10)));
+        for (DataSource replica : sources.getReplicas()) {
+            new JdbcTemplate(replica).update("insert into member (member_id, user_name, age) values (?, ?, ?)", 10_000L, "replicaOnly", 20);
+        }
+    }
+
+    @AfterEach
+    public void after() {
+        transactionTemplate.executeWithoutResult(status -> em.createQuery("delete from Member").executeUpdate());
+        for (DataSource replica : sources.getReplicas()) {
+            new JdbcTemplate(replica).update("delete from member");
+        }
+    }
+
+    @Test
+    public void readOnlyRepositoryCallsReadReplica() throws Exception {
+        for (int i = 0; i < 2; i++) { // 레플리카 두 개를 번갈아 탄다.
+            assertThat(memberJpaRepository.findByUserName("replicaOnly")).extracting("age").containsExactly(20);
+            assertThat(memberJpaRepository.findByUserName("primaryOnly")).isEmpty();
+            assertThat(memberRepository.findByUserName("replicaOnly")).hasSize(1); // 스프링 데이터 쿼리 메서드
+        }
+    }
+
+    @Test
+    public void callsInWriteTransactionStayOnPrimary() throws Exception {
+        transactionTemplate.executeWithoutResult(status -> {
+            assertThat(memberJpaRepository.findByUserName("primaryOnly")).extracting("age").containsExactly(10);
+            assertThat(memberJpaRepository.findByUserName("replicaOnly")).isEmpty();
+        });
+    }
+
+    @Test
+    public void readModelReloadsFromPrimary() throws Exception {
+        // given
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUserName("primaryOnly");
+
+        // when - search 는 readOnly 지만 읽기 모델은 별도 쓰기 트랜잭션으로 프라이머리에서 읽는다.
+        assertThat(memberRepository.search(condition)).extracting("age").containsExactly(10);
+
+        // then
+        condition.setUserName("replicaOnly");
+        assertThat(memberRepository.search(condition)).isEmpty();
+    }
+
+    @Test
+    public void poolSettingsAreBound() throws Exception {
+        HikariDataSource primary = (HikariDataSource) sources.getPrimary();
+        assertThat(primary.getMaximumPoolSize()).isEqualTo(3);
+        assertThat(primary.getPoolName()).isEqualTo("primary");
+        for (DataSource replica : sources.getReplicas()) {
+            assertThat(((HikariDataSource) replica).getMaximumPoolSize()).isEqualTo(3);
+        }
+    }
+}
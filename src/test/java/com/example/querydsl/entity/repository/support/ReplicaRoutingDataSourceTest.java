@@ -0,0 +1,82 @@
+package com.example.querydsl.entity.repository.support;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 로컬 H2 인메모리 DB 여러 개를 프라이머리/레플리카로 두고 어느 DB 로 커넥션이 가는지 database() 로 확인한다.
+ */
+class ReplicaRoutingDataSourceTest {
+
+    DataSource primary = h2("primary");
+    DataSource replica1 = h2("replica1");
+    DataSource replica2 = h2("replica2");
+    DataSource down = new DriverManagerDataSource("jdbc:h2:tcp://localhost:1/~/down", "sa", ""); // 연결 거부
+
+    @AfterEach
+    public void after() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    public void writeAndNonTransactionalGoToPrimary() throws Exception {
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, List.of(replica1, replica2), 5000);
+
+        assertThat(database(routing)).isEqualTo("PRIMARY");
+    }
+
+    @Test
+    public void readOnlyRoundRobinsReplicas() throws Exception {
+        // given
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, List.of(replica1, replica2), 5000);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // when then
+        assertThat(database(routing)).isEqualTo("REPLICA1");
+        assertThat(database(routing)).isEqualTo("REPLICA2");
+        assertThat(database(routing)).isEqualTo("REPLICA1");
+    }
+
+    @Test
+    public void downReplicaIsSkipped() throws Exception {
+        // given
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, List.of(down, replica1), 60_000);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // when then
+        assertThat(database(routing)).isEqualTo("REPLICA1"); // down 실패 -> 다음 레플리카
+        assertThat(database(routing)).isEqualTo("REPLICA1"); // down 차례지만 retry 전이라 건너뜀
+    }
+
+    @Test
+    public void allReplicasDownFallBackToPrimary() throws Exception {
+        // given
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, List.of(down), 60_000);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // when then
+        assertThat(database(routing)).isEqualTo("PRIMARY");
+    }
+
+    private static DataSource h2(String name) {
+        return new DriverManagerDataSource("jdbc:h2:mem:" + name, "sa", "");
+    }
+
+    private static String database(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             ResultSet rs = connection.createStatement().executeQuery("select database()")) {
+            rs.next();
+            return rs.getString(1);
+        }
+    }
+}
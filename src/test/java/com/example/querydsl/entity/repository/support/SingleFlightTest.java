@@ -0,0 +1,145 @@
+package com.example.querydsl.entity.repository.support;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+    SingleFlight<String> singleFlight = new SingleFlight<>(5000);
+    ExecutorService executor = Executors.newFixedThreadPool(5);
+
+    AtomicInteger executions = new AtomicInteger();
+    AtomicInteger shared = new AtomicInteger();
+    AtomicInteger timedOut = new AtomicInteger();
+    CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    public void after() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void concurrentCallsShareOneExecution() throws Exception {
+        // given
+        List<Future<Object>> results = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            results.add(submit(this::slowQuery));
+        }
+        awaitShared(4); // 리더 1개가 막혀 있는 동안 나머지 4개가 붙는다.
+
+        // when
+        release.countDown();
+
+        // then
+        Object first = results.get(0).get(5, TimeUnit.SECONDS);
+        for (Future<Object> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isSameAs(first);
+        }
+        assertThat(executions).hasValue(1);
+        assertThat(singleFlight.inFlight()).isZero();
+    }
+
+    @Test
+    public void finishedCallIsNotCached() throws Throwable {
+        // given
+        release.countDown();
+        singleFlight.execute("key", this::slowQuery, shared::incrementAndGet, timedOut::incrementAndGet);
+
+        // when
+        singleFlight.execute("key", this::slowQuery, shared::incrementAndGet, timedOut::incrementAndGet);
+
+        // then
+        assertThat(executions).hasValue(2);
+        assertThat(shared).hasValue(0);
+    }
+
+    @Test
+    public void leaderFailurePropagatesToFollowers() throws Exception {
+        // given
+        Future<Object> leader = submit(() -> {
+            release.await();
+            throw new IllegalStateException("boom");
+        });
+        awaitInFlight();
+        Future<Object> follower = submit(this::slowQuery);
+        awaitShared(1);
+
+        // when
+        release.countDown();
+
+        // then
+        assertThatThrownBy(() -> leader.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> follower.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(IllegalStateException.class);
+        assertThat(executions).hasValue(0);
+    }
+
+    @Test
+    public void followerStopsWaitingAfterTimeout() throws Throwable {
+        // given
+        singleFlight = new SingleFlight<>(100);
+        Future<Object> leader = submit(this::slowQuery);
+        awaitInFlight();
+
+        // when - 리더가 막혀 있는 동안 follower 는 100ms 만 기다리고 직접 실행한다.
+        Object result = singleFlight.execute("key", () -> {
+            executions.incrementAndGet();
+            return "own";
+        }, shared::incrementAndGet, timedOut::incrementAndGet);
+
+        // then
+        assertThat(result).isEqualTo("own");
+        assertThat(shared).hasValue(1);
+        assertThat(timedOut).hasValue(1);
+        assertThat(executions).hasValue(1);
+
+        release.countDown();
+        leader.get(5, TimeUnit.SECONDS);
+        assertThat(executions).hasValue(2);
+    }
+
+    private Future<Object> submit(SingleFlight.Call<Object> call) {
+        return executor.submit(() -> {
+            try {
+                return singleFlight.execute("key", call, shared::incrementAndGet, timedOut::incrementAndGet);
+            } catch (Exception e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    private Object slowQuery() throws InterruptedException {
+        release.await();
+        executions.incrementAndGet();
+        return new Object();
+    }
+
+    private void awaitShared(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (shared.get() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(shared).hasValue(count);
+    }
+
+    private void awaitInFlight() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (singleFlight.inFlight() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(singleFlight.inFlight()).isOne();
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.querydsl.support;
+
+import com.example.querydsl.entity.repository.support.SqlStatementCounter;
+import com.example.querydsl.entity.repository.support.SqlStatementCounter.Snapshot;
+import com.example.querydsl.entity.repository.support.SqlStatementCounter.Type;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 블록 안에서 실행된 SQL 문장 수를 종류별로 검증한다. (N+1 방지용)
+ * 쓰기 문장은 flush 할 때 나가므로 insert/update/delete 를 세려면 블록 안에서 em.flush() 까지 해야 한다.
+ *
+ * <pre>
+ * assertStatements(() -> memberJpaRepository.search(condition))
+ *         .selectsAtMost(1)
+ *         .noWrites();
+ * </pre>
+ */
+public class SqlStatementAssertions {
+
+    private final Snapshot executed;
+
+    private SqlStatementAssertions(Snapshot executed) {
+        this.executed = executed;
+    }
+
+    public static SqlStatementAssertions assertStatements(Runnable block) {
+        Snapshot before = SqlStatementCounter.snapshot();
+        block.run();
+        return new SqlStatementAssertions(before.delta());
+    }
+
+    public SqlStatementAssertions selects(long expected) {
+        return is(Type.SELECT, expected);
+    }
+
+    public SqlStatementAssertions selectsAtMost(long max) {
+        return atMost(Type.SELECT, max);
+    }
+
+    public SqlStatementAssertions insertsAtMost(long max) {
+        return atMost(Type.INSERT, max);
+    }
+
+    public SqlStatementAssertions updatesAtMost(long max) {
+        return atMost(Type.UPDATE, max);
+    }
+
+    public SqlStatementAssertions deletesAtMost(long max) {
+        return atMost(Type.DELETE, max);
+    }
+
+    public SqlStatementAssertions noWrites() {
+        return atMost(Type.INSERT, 0).atMost(Type.UPDATE, 0).atMost(Type.DELETE, 0);
+    }
+
+    public SqlStatementAssertions totalAtMost(long max) {
+        assertThat(executed.total()).as("total statements").isLessThanOrEqualTo(max);
+        return this;
+    }
+
+    public SqlStatementAssertions is(Type type, long expected) {
+        assertThat(executed.get(type)).as(type + " statements").isEqualTo(expected);
+        return this;
+    }
+
+    public SqlStatementAssertions atMost(Type type, long max) {
+        assertThat(executed.get(type)).as(type + " statements").isLessThanOrEqualTo(max);
+        return this;
+    }
+}